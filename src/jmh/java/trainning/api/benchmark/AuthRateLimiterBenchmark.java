@@ -0,0 +1,44 @@
+package trainning.api.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+import trainning.api.exception.TooManyRequestsException;
+import trainning.api.security.AuthRateLimiter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rejecting a login attempt from a client whose bucket is empty, under contention.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class AuthRateLimiterBenchmark {
+    private AuthRateLimiter limiter;
+
+    @Setup
+    public void setUp() {
+        limiter = new AuthRateLimiter();
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "maxClients", 100_000L);
+        ReflectionTestUtils.setField(limiter, "ipCapacity", 1L);
+        ReflectionTestUtils.setField(limiter, "ipPerMinute", 1L);
+        ReflectionTestUtils.setField(limiter, "userCapacity", 1L);
+        ReflectionTestUtils.setField(limiter, "userPerMinute", 1L);
+        limiter.init();
+    }
+
+    @Benchmark
+    public boolean rejectAttempt() {
+        try {
+            limiter.acquire("203.0.113.7", 42L);
+            return true;
+        } catch (TooManyRequestsException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package trainning.api.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.test.util.ReflectionTestUtils;
+import trainning.api.model.RoleModel;
+import trainning.api.model.UserModel;
+import trainning.api.security.JwtUtil;
+import trainning.api.security.TokenAuthenticationCache;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Builds the components under benchmark outside a Spring context, configured like the test profile.
+ */
+final class BenchmarkFixtures {
+    static final String JWT_SECRET = "12345678901234567890123456789012";
+    static final int JWT_EXPIRATION_MS = 8640000;
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtUtil jwtUtil() {
+        return jwtUtil("HS256");
+    }
+
+    static JwtUtil jwtUtil(String signingAlgorithm) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "signingAlgorithm", signingAlgorithm);
+        ReflectionTestUtils.setField(jwtUtil, "ephemeralKeys", true);
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", JWT_EXPIRATION_MS);
+        ReflectionTestUtils.setField(jwtUtil, "meterRegistry", new SimpleMeterRegistry());
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    static TokenAuthenticationCache tokenCache(boolean enabled) {
+        TokenAuthenticationCache cache = new TokenAuthenticationCache();
+        ReflectionTestUtils.setField(cache, "enabled", enabled);
+        ReflectionTestUtils.setField(cache, "maxSize", 10_000L);
+        ReflectionTestUtils.setField(cache, "ttlMs", 300_000L);
+        cache.init();
+        return cache;
+    }
+
+    static Set<RoleModel> roles(String... names) {
+        Set<RoleModel> roles = new LinkedHashSet<>();
+        for (String name : names) {
+            RoleModel role = new RoleModel();
+            role.setName(name);
+            roles.add(role);
+        }
+        return roles;
+    }
+
+    static UserModel user(String username, Set<RoleModel> roles) {
+        UserModel user = new UserModel();
+        user.setUsername(username);
+        user.setPassword("hash");
+        roles.forEach(user::addRole);
+        return user;
+    }
+}
@@ -0,0 +1,46 @@
+package trainning.api.benchmark;
+
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import trainning.api.model.Role;
+import trainning.api.security.JwtAuthenticationFilter;
+import trainning.api.security.JwtUtil;
+import trainning.api.security.TokenRevocationRegistry;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+    @Param({"false", "true"})
+    private boolean tokenCacheEnabled;
+
+    private JwtAuthenticationFilter filter;
+    private String authorizationHeader;
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private final FilterChain chain = (request, response) -> {};
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = BenchmarkFixtures.jwtUtil();
+        filter = new JwtAuthenticationFilter(jwtUtil, BenchmarkFixtures.tokenCache(tokenCacheEnabled), new TokenRevocationRegistry());
+        authorizationHeader = "Bearer " + jwtUtil.generateToken(42L, BenchmarkFixtures.roles(Role.USER_ADMIN.getName()), 0);
+    }
+
+    @Benchmark
+    public void doFilter(Blackhole blackhole) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/user/42");
+        request.addHeader("Authorization", authorizationHeader);
+        filter.doFilter(request, response, chain);
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+}
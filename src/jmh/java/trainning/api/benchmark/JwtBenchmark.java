@@ -0,0 +1,59 @@
+package trainning.api.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import trainning.api.model.Role;
+import trainning.api.model.RoleModel;
+import trainning.api.security.JwtPrincipal;
+import trainning.api.security.JwtUtil;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+    @Param({"HS256", "EdDSA", "ES256"})
+    private String algorithm;
+
+    private JwtUtil jwtUtil;
+    private Set<RoleModel> roles;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = BenchmarkFixtures.jwtUtil(algorithm);
+        roles = BenchmarkFixtures.roles(Role.SIMPLE_USER.getName(), Role.USER_ADMIN.getName());
+        token = jwtUtil.generateToken(42L, roles, 0);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(42L, roles, 0);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public Long getIdFromToken() {
+        return jwtUtil.getIdFromToken(token);
+    }
+
+    @Benchmark
+    public List<String> getRolesFromToken() {
+        return jwtUtil.getRolesFromToken(token);
+    }
+
+    @Benchmark
+    public Optional<JwtPrincipal> verifyToken() {
+        return jwtUtil.verifyToken(token);
+    }
+}
@@ -0,0 +1,69 @@
+package trainning.api.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import trainning.api.security.BreachedPasswordCorpus;
+import trainning.api.security.CharacterClassPasswordPolicy;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordValidationBenchmark {
+    private static final int CORPUS_SIZE = 1_000_000;
+
+    @Param({"Abc123456789_", "Abcdefghijklmnopqrstuvwxyz_0123456789"})
+    private String password;
+
+    private final CharacterClassPasswordPolicy characterClassPolicy = new CharacterClassPasswordPolicy(10, "!@#$%^&*()_+=-");
+    private Path corpusFile;
+    private BreachedPasswordCorpus corpus;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Random sorted hashes: lookups take the same number of probes as in a real corpus of the same size
+        Path source = Files.createTempFile("breached", ".txt");
+        corpusFile = Files.createTempFile("breached", ".bin");
+        SplittableRandom random = new SplittableRandom(42);
+        long[] prefixes = random.longs(CORPUS_SIZE).toArray();
+        Arrays.sort(prefixes); // Signed order, converted below
+        try (BufferedWriter writer = Files.newBufferedWriter(source)) {
+            int firstNonNegative = 0;
+            while (firstNonNegative < prefixes.length && prefixes[firstNonNegative] < 0) {
+                firstNonNegative++;
+            }
+            for (int i = 0; i < prefixes.length; i++) {
+                long prefix = prefixes[(firstNonNegative + i) % prefixes.length]; // Unsigned order
+                writer.write(String.format("%016X%024d:1%n", prefix, 0));
+            }
+        }
+        BreachedPasswordCorpus.convert(source, corpusFile);
+        Files.delete(source);
+        corpus = BreachedPasswordCorpus.open(corpusFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        corpus.close();
+        Files.deleteIfExists(corpusFile);
+    }
+
+    @Benchmark
+    public void characterClassPolicy() {
+        characterClassPolicy.validate(password);
+    }
+
+    @Benchmark
+    public boolean breachedCorpusLookup() {
+        return corpus.contains(password);
+    }
+}
@@ -0,0 +1,37 @@
+package trainning.api.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import trainning.api.dto.UserDto;
+import trainning.api.mapper.UserMapper;
+import trainning.api.model.Role;
+import trainning.api.model.UserModel;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserMapperBenchmark {
+    private final UserMapper userMapper = new UserMapper();
+    private UserModel user;
+    private final List<String> roleNames = List.of(Role.SIMPLE_USER.getName(), Role.USER_ADMIN.getName());
+
+    @Setup
+    public void setUp() {
+        user = BenchmarkFixtures.user("benchmarkUser", BenchmarkFixtures.roles(Role.SIMPLE_USER.getName(), Role.USER_ADMIN.getName()));
+    }
+
+    @Benchmark
+    public UserDto toDto() {
+        return userMapper.toDto(user);
+    }
+
+    @Benchmark
+    public UserDto fromRoleNames() {
+        return new UserDto(42L, "benchmarkUser", roleNames);
+    }
+}
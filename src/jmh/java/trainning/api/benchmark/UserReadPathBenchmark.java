@@ -0,0 +1,66 @@
+package trainning.api.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import trainning.api.ApiApplication;
+import trainning.api.cache.RoleCatalog;
+import trainning.api.dto.UserDto;
+import trainning.api.mapper.UserMapper;
+import trainning.api.model.Role;
+import trainning.api.model.UserModel;
+import trainning.api.repository.UserRepository;
+import trainning.api.service.UserService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a user as a managed entity then mapping it, with the single-query projection used by
+ * {@code GET /v1/user/{id}}, against the in-memory test database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserReadPathBenchmark {
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private UserMapper userMapper;
+    private UserService userService;
+    private long userId;
+
+    @Setup
+    public void setUp() {
+        context = SpringApplication.run(ApiApplication.class,
+                "--spring.profiles.active=test", "--server.port=0", "--logging.level.root=WARN");
+        userRepository = context.getBean(UserRepository.class);
+        userMapper = context.getBean(UserMapper.class);
+        userService = context.getBean(UserService.class);
+
+        RoleCatalog roleCatalog = context.getBean(RoleCatalog.class);
+        UserModel user = new UserModel();
+        user.setUsername("benchmarkUser");
+        user.setPassword(context.getBean(PasswordEncoder.class).encode("Password_1234"));
+        user.addRole(roleCatalog.get(Role.SIMPLE_USER).orElseThrow());
+        user.addRole(roleCatalog.get(Role.USER_ADMIN).orElseThrow());
+        userId = userRepository.save(user).getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDto entityAndMapper() {
+        return userMapper.toDto(userRepository.findById(userId).orElseThrow());
+    }
+
+    @Benchmark
+    public UserDto projection() {
+        return userService.getUser(userId);
+    }
+}
@@ -0,0 +1,55 @@
+package trainning.api.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import trainning.api.model.Role;
+import trainning.api.model.RoleModel;
+import trainning.api.repository.RoleRepository;
+
+import java.util.*;
+
+/**
+ * Immutable in-memory snapshot of the {@code api_role} table, so role resolution needs no SQL. Loaded at startup by
+ * {@link trainning.api.config.DataInitializationConfig}; call {@link #refresh()} after any change to the roles.
+ */
+@Component
+public class RoleCatalog {
+    @Autowired
+    private RoleRepository roleRepository;
+
+    private volatile Snapshot snapshot;
+
+    private record Snapshot(Map<Role, RoleModel> byRole, Map<String, RoleModel> byName) {}
+
+    public void refresh() {
+        Map<Role, RoleModel> byRole = new EnumMap<>(Role.class);
+        Map<String, RoleModel> byName = new HashMap<>();
+        for (RoleModel role : roleRepository.findAll()) {
+            byName.put(role.getName(), role);
+        }
+        for (Role role : Role.values()) {
+            RoleModel model = byName.get(role.getName());
+            if (model != null) {
+                byRole.put(role, model);
+            }
+        }
+        this.snapshot = new Snapshot(Collections.unmodifiableMap(byRole), Map.copyOf(byName));
+    }
+
+    public Optional<RoleModel> get(Role role) {
+        return Optional.ofNullable(snapshot().byRole().get(role));
+    }
+
+    public Optional<RoleModel> findByName(String name) {
+        return Optional.ofNullable(snapshot().byName().get(name));
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) { // Used before initialization
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,129 @@
+package trainning.api.cache;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * In-memory membership filter over user IDs and usernames, used to answer "definitely not there" without a database
+ * round trip. It is built once the application is ready by streaming {@code api_user}, and fed on every insert by
+ * {@link UserMembershipListener} from bean creation on, so that users inserted by requests served before the build
+ * completes are kept. Deleted users stay in the filter, which only costs a database lookup.
+ * <p>
+ * Only inserts made through this instance are seen, so enable it when a single instance writes users.
+ */
+@Slf4j
+@Component
+public class UserMembershipFilter {
+    @Value("${user.membership-filter.enabled:false}")
+    private boolean enabled;
+    @Value("${user.membership-filter.expected-insertions:1000000}")
+    private long expectedInsertions;
+    @Value("${user.membership-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+    @Value("${user.membership-filter.fetch-size:1000}")
+    private int fetchSize;
+
+    // Resolved lazily: this bean is needed by the JPA entity listener, hence before the EntityManagerFactory exists
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private ObjectProvider<PlatformTransactionManager> transactionManager;
+
+    private final Object writeLock = new Object();
+    private volatile Filters current; // null until the first build completes: everything "might" exist
+    private Filters building;
+
+    private record Filters(BloomFilter ids, BloomFilter usernames) {}
+
+    @PostConstruct
+    public void init() { // Before the web server accepts requests, which precedes the ready event
+        if (enabled) {
+            synchronized (writeLock) {
+                building = newFilters();
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        Filters filters;
+        synchronized (writeLock) {
+            if (building == null) {
+                building = newFilters();
+            }
+            filters = building;
+        }
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager.getObject());
+        transaction.setReadOnly(true); // Required by the Postgres driver to honour the fetch size
+        long[] count = {0};
+        transaction.executeWithoutResult(status -> {
+            JdbcTemplate streamingTemplate = new JdbcTemplate(dataSource);
+            streamingTemplate.setFetchSize(fetchSize);
+            streamingTemplate.query("SELECT id, username FROM api_user", rs -> {
+                filters.ids().add(rs.getLong(1));
+                filters.usernames().add(rs.getString(2));
+                count[0]++;
+            });
+        });
+
+        synchronized (writeLock) {
+            current = filters;
+            building = null;
+        }
+        log.info("User membership filter built from {} users", count[0]);
+    }
+
+    public void add(long id, String username) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (current != null) {
+                current.ids().add(id);
+                current.usernames().add(username);
+            }
+            if (building != null) {
+                building.ids().add(id);
+                building.usernames().add(username);
+            }
+        }
+    }
+
+    /**
+     * @return false only if no user with this ID has ever been inserted
+     */
+    public boolean mightContainId(long id) {
+        Filters filters = current;
+        return filters == null || filters.ids().mightContain(id);
+    }
+
+    /**
+     * @return false only if no user with this username has ever been inserted
+     */
+    public boolean mightContainUsername(String username) {
+        Filters filters = current;
+        return filters == null || filters.usernames().mightContain(username);
+    }
+
+    private Filters newFilters() {
+        return new Filters(
+                new BloomFilter(expectedInsertions, falsePositiveRate),
+                new BloomFilter(expectedInsertions, falsePositiveRate)
+        );
+    }
+}
@@ -0,0 +1,17 @@
+package trainning.api.cache;
+
+import jakarta.persistence.PostPersist;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import trainning.api.model.UserModel;
+
+@Component
+public class UserMembershipListener {
+    @Autowired
+    private UserMembershipFilter userMembershipFilter;
+
+    @PostPersist
+    public void onUserCreated(UserModel user) {
+        userMembershipFilter.add(user.getId(), user.getUsername());
+    }
+}
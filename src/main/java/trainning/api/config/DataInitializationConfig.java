@@ -6,12 +6,13 @@ import org.springframework.boot.ApplicationRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import trainning.api.cache.RoleCatalog;
 import trainning.api.model.Role;
 import trainning.api.model.RoleModel;
 import trainning.api.model.UserModel;
 import trainning.api.repository.RoleRepository;
-import org.springframework.transaction.annotation.Transactional;
 import trainning.api.repository.UserRepository;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Configuration
 public class DataInitializationConfig {
@@ -21,14 +22,17 @@ public class DataInitializationConfig {
     private RoleRepository roleRepository;
     @Autowired
     private PasswordEncoder passwordEncoder;
+    @Autowired
+    private RoleCatalog roleCatalog;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
     @Value("${admin.password}")
     private String adminPassword;
 
     @Bean
-    @Transactional
     ApplicationRunner initDatabase() {
-        return args -> { // If database is empty
+        return args -> transactionTemplate.executeWithoutResult(status -> { // If database is empty, checked on the primary
             if (roleRepository.count() == 0) { // Create roles
                 RoleModel adminRole = new RoleModel();
                 adminRole.setName(Role.ADMIN.getName());
@@ -42,16 +46,18 @@ public class DataInitializationConfig {
                 simpleUserRole.setName(Role.SIMPLE_USER.getName());
                 roleRepository.save(simpleUserRole);
             }
+            roleCatalog.refresh();
+
             if (userRepository.count() == 0) { // Create admin user
                 UserModel adminUser = new UserModel();
                 adminUser.setUsername("admin");
                 adminUser.setPassword(passwordEncoder.encode(adminPassword));
                 adminUser.addRole(
-                        roleRepository.findByName(Role.ADMIN.getName())
+                        roleCatalog.get(Role.ADMIN).orElseThrow()
                 );
 
                 userRepository.save(adminUser);
             }
-        };
+        });
     }
 }
\ No newline at end of file
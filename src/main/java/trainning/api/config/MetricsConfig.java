@@ -0,0 +1,40 @@
+package trainning.api.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+public class MetricsConfig {
+    private static final List<String> HISTOGRAM_TIMERS = List.of(
+            "http.server.requests",
+            "jwt.mint",
+            "jwt.verify",
+            "password.hash",
+            "password.hash.queue.wait",
+            "spring.data.repository.invocations" // One timer per repository method, recorded by Spring Boot
+    );
+
+    /**
+     * Publishes percentile histograms for the hot path timers, so that p99 latencies can be aggregated across pods.
+     */
+    @Bean
+    public MeterFilter hotPathHistograms() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getType() == Meter.Type.TIMER && HISTOGRAM_TIMERS.contains(id.getName())) {
+                    return DistributionStatisticConfig.builder()
+                            .percentilesHistogram(true)
+                            .build()
+                            .merge(config);
+                }
+                return config;
+            }
+        };
+    }
+}
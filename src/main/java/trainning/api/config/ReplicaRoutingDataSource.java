@@ -0,0 +1,118 @@
+package trainning.api.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends connections of read-only transactions to the replica and everything else to the primary. Must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, so the connection is only obtained once
+ * the transaction's read-only flag is known.
+ * <p>
+ * After a principal commits a write, its reads stay on the primary for the maximum replica lag (read-your-writes).
+ * When the replica cannot hand out a connection, reads fall back to the primary until the retry interval has elapsed.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements MeterBinder {
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long retryIntervalMs;
+    private final Cache<String, Boolean> pinnedPrincipals;
+    private final AtomicLong replicaConnections = new AtomicLong();
+    private final AtomicLong primaryFallbacks = new AtomicLong();
+    private volatile long replicaDownUntilMs;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, long maxLagMs, long retryIntervalMs) {
+        this.primary = primary;
+        this.replica = replica;
+        this.retryIntervalMs = retryIntervalMs;
+        this.pinnedPrincipals = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(maxLagMs))
+                .build();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (useReplica()) {
+            try {
+                Connection connection = replica.getConnection();
+                replicaConnections.incrementAndGet();
+                return connection;
+            } catch (SQLException e) {
+                replicaDownUntilMs = System.currentTimeMillis() + retryIntervalMs;
+                primaryFallbacks.incrementAndGet();
+                log.warn("Replica unavailable, routing reads to the primary for {} ms: {}", retryIntervalMs, e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    private boolean useReplica() {
+        String principal = currentPrincipal();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (principal != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        pinnedPrincipals.put(principal, Boolean.TRUE);
+                    }
+                });
+            }
+            return false;
+        }
+        if (principal != null && pinnedPrincipals.getIfPresent(principal) != null) {
+            return false;
+        }
+        return System.currentTimeMillis() >= replicaDownUntilMs;
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? null : authentication.getName();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("datasource.replica.connections", this, ReplicaRoutingDataSource::getReplicaConnectionCount)
+                .description("Connections handed out by the replica")
+                .register(registry);
+        FunctionCounter.builder("datasource.replica.fallbacks", this, ReplicaRoutingDataSource::getPrimaryFallbackCount)
+                .description("Reads sent to the primary because the replica was unavailable")
+                .register(registry);
+        Gauge.builder("datasource.replica.healthy", this, dataSource -> dataSource.isReplicaHealthy() ? 1 : 0)
+                .description("Whether reads are currently routed to the replica")
+                .register(registry);
+    }
+
+    public boolean isReplicaHealthy() {
+        return System.currentTimeMillis() >= replicaDownUntilMs;
+    }
+
+    public long getReplicaConnectionCount() {
+        return replicaConnections.get();
+    }
+
+    public long getPrimaryFallbackCount() {
+        return primaryFallbacks.get();
+    }
+}
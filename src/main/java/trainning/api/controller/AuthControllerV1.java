@@ -5,6 +5,7 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -12,27 +13,53 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import trainning.api.dto.AuthDto;
+import trainning.api.dto.RefreshDto;
+import trainning.api.security.AuthRateLimiter;
 import trainning.api.service.AuthService;
+import trainning.api.service.AuthTokens;
 
 @RestController
 @RequestMapping("/v1")
 @Validated
 @Tag(name = "Authentication", description = "Endpoint for authentication")
 public class AuthControllerV1 {
+    public static final String REFRESH_TOKEN_HEADER = "Refresh-Token";
+
     @Autowired
     private AuthService authService;
+    @Autowired
+    private AuthRateLimiter authRateLimiter;
 
-    @Operation(summary = "Authenticate user", description = "Authenticates the user and returns a JWT token")
+    @Operation(summary = "Authenticate user", description = "Authenticates the user and returns a JWT token, along with a refresh token in the Refresh-Token header")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful authentication"),
             @ApiResponse(responseCode = "400", description = "Invalid request payload / Invalid password", content = @Content(mediaType = "application/json")),
             @ApiResponse(responseCode = "404", description = "User not found", content = @Content(mediaType = "application/json")),
-            @ApiResponse(responseCode = "405", description = "Method not allowed", content = @Content(mediaType = "application/json"))
+            @ApiResponse(responseCode = "405", description = "Method not allowed", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "429", description = "Too many authentication attempts from this client or for this user, retry after the given delay", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "503", description = "Too many concurrent authentication requests, retry after the given delay", content = @Content(mediaType = "application/json"))
     })
     @PostMapping("/auth")
-    public ResponseEntity<String> auth(@RequestBody @Valid AuthDto authRequest) {
-        return ResponseEntity.status(HttpStatus.OK).body(
-                authService.login(authRequest.getId(), authRequest.getPassword())
-        );
+    public ResponseEntity<String> auth(@RequestBody @Valid AuthDto authRequest, HttpServletRequest request) {
+        authRateLimiter.acquire(request.getRemoteAddr(), authRequest.getId());
+        String token = authService.login(authRequest.getId(), authRequest.getPassword());
+        return ResponseEntity.status(HttpStatus.OK)
+                .header(REFRESH_TOKEN_HEADER, authService.issueRefreshToken(authRequest.getId()))
+                .body(token);
+    }
+
+    @Operation(summary = "Refresh token", description = "Exchanges a refresh token for a new JWT token and a new refresh token in the Refresh-Token header. A refresh token can only be used once")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successful refresh"),
+            @ApiResponse(responseCode = "400", description = "Invalid request payload", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "401", description = "Invalid, expired or already used refresh token", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "405", description = "Method not allowed", content = @Content(mediaType = "application/json"))
+    })
+    @PostMapping("/auth/refresh")
+    public ResponseEntity<String> refresh(@RequestBody @Valid RefreshDto refreshRequest) {
+        AuthTokens tokens = authService.refresh(refreshRequest.getRefreshToken());
+        return ResponseEntity.status(HttpStatus.OK)
+                .header(REFRESH_TOKEN_HEADER, tokens.refreshToken())
+                .body(tokens.accessToken());
     }
 }
@@ -0,0 +1,60 @@
+package trainning.api.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import trainning.api.security.JwtUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+@RequestMapping("")
+@Tag(name = "JWKS", description = "Public keys to verify tokens with")
+public class JwksController {
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${jwt.jwks.max-age:3600}")
+    private long maxAgeSeconds;
+
+    private String jwks; // Keys only change on restart
+    private String etag;
+
+    @PostConstruct
+    public void init() throws JsonProcessingException {
+        this.jwks = objectMapper.writeValueAsString(Map.of("keys", jwtUtil.getPublicKeys()));
+        this.etag = "\"" + DigestUtils.md5DigestAsHex(jwks.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    @Operation(summary = "Get signing keys", description = "Returns the public keys tokens are signed with as a JSON Web Key Set, empty when tokens are signed with a shared secret")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Key set"),
+            @ApiResponse(responseCode = "304", description = "Key set unchanged since the given ETag"),
+    })
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks() {
+        // If-None-Match is handled by Spring MVC from the ETag
+        return ResponseEntity.status(HttpStatus.OK)
+                .eTag(etag)
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePublic())
+                .body(jwks);
+    }
+}
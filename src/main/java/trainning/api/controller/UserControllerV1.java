@@ -7,31 +7,85 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import trainning.api.dto.BatchUserResultDto;
 import trainning.api.dto.CreateUserDto;
 import trainning.api.dto.UserDto;
+import trainning.api.dto.UserPageDto;
 import trainning.api.mapper.UserMapper;
+import trainning.api.service.BatchRegistrationResult;
+import trainning.api.service.UserExportService;
 import trainning.api.service.UserService;
 
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.IntStream;
 
 @RestController
 @RequestMapping("/v1/user")
 @Validated
 @Tag(name = "User Management", description = "Endpoints for managing users")
 public class UserControllerV1 {
+    private static final String NDJSON = "application/x-ndjson";
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate(); // Cached, checked by ETag
+
     @Autowired
     private UserService userService;
     @Autowired
     private UserMapper userMapper;
+    @Autowired
+    private UserExportService userExportService;
+
+    @Value("${user.page.max-size:500}")
+    private int maxPageSize;
+
+    @Operation(summary = "List users", description = "Lists users by ascending ID, one page at a time, optionally filtered by role")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page of users"),
+            @ApiResponse(responseCode = "400", description = "Wrong parameter format / Role not found", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - JWT Token is missing or invalid", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "403", description = "User not authorized to do this operation", content = @Content(mediaType = "application/json")),
+    })
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER_ADMIN')")
+    @GetMapping("")
+    public ResponseEntity<UserPageDto> listUsers(@RequestParam(defaultValue = "0") long after,
+                                                 @RequestParam(defaultValue = "50") int limit,
+                                                 @RequestParam(required = false) String role) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        List<UserDto> users = userService.listUsers(after, pageSize, role);
+        Long nextAfter = users.size() == pageSize ? users.get(users.size() - 1).getId() : null;
+        return ResponseEntity.status(HttpStatus.OK).body(new UserPageDto(users, nextAfter));
+    }
+
+    @Operation(summary = "Export all users", description = "Streams every user with their roles as newline-delimited JSON, one user per line")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "User directory"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - JWT Token is missing or invalid", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "403", description = "User not authorized to do this operation", content = @Content(mediaType = "application/json")),
+    })
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER_ADMIN')")
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(userExportService::exportUsers);
+    }
 
-    @Operation(summary = "Get user by ID", description = "Retrieves a user by their ID")
+    @Operation(summary = "Get user by ID", description = "Retrieves a user by their ID, with its version as ETag")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User found"),
+            @ApiResponse(responseCode = "304", description = "User unchanged since the version given by If-None-Match"),
             @ApiResponse(responseCode = "400", description = "Wrong ID format"),
             @ApiResponse(responseCode = "401", description = "Unauthorized - JWT Token is missing or invalid", content = @Content(mediaType = "application/json")),
             @ApiResponse(responseCode = "403", description = "User not authorized to do this operation", content = @Content(mediaType = "application/json")),
@@ -39,29 +93,36 @@ public class UserControllerV1 {
     })
     @PreAuthorize("hasAnyRole('ADMIN', 'USER_ADMIN')")
     @GetMapping("/{id}")
-    public ResponseEntity<UserDto> getUser(@PathVariable @Valid long id) {
-        return ResponseEntity.status(HttpStatus.OK).body(
-                userMapper.toDto(userService.getUser(id))
-        );
+    public ResponseEntity<UserDto> getUser(@PathVariable @Valid long id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) { // Only the version is read to check it
+            String etag = etag(userService.getUserVersion(id));
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+            }
+        }
+        UserDto user = userService.getUser(id);
+        return ResponseEntity.status(HttpStatus.OK).eTag(etag(user.getVersion())).cacheControl(REVALIDATE).body(user);
     }
 
-    @Operation(summary = "Delete a user", description = "Deletes a user by their ID")
+    @Operation(summary = "Delete a user", description = "Deletes a user by their ID, only if it still has the version given by If-Match if any")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User found"),
             @ApiResponse(responseCode = "400", description = "Wrong ID format"),
             @ApiResponse(responseCode = "401", description = "Unauthorized - JWT Token is missing or invalid", content = @Content(mediaType = "application/json")),
             @ApiResponse(responseCode = "403", description = "User not authorized to do this operation", content = @Content(mediaType = "application/json")),
             @ApiResponse(responseCode = "404", description = "User not found", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "412", description = "User modified since the version given by If-Match", content = @Content(mediaType = "application/json")),
     })
     @PreAuthorize("hasAnyRole('ADMIN', 'USER_ADMIN')")
     @DeleteMapping("/{id}")
-    public ResponseEntity<String> deleteUser(@PathVariable @Valid long id) {
+    public ResponseEntity<String> deleteUser(@PathVariable @Valid long id,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         return ResponseEntity.status(HttpStatus.OK).body(
-                userService.deleteUser(id)
+                userService.deleteUser(id, expectedVersions(ifMatch))
         );
     }
 
-    @Operation(summary = "Modify user's password", description = "Modify the password of the user (can be done by the user itself)")
+    @Operation(summary = "Modify user's password", description = "Modify the password of the user (can be done by the user itself), only if it still has the version given by If-Match if any")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Password modified successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid request payload / Invalid password / Wrong ID format", content = @Content(mediaType = "application/json")),
@@ -69,31 +130,36 @@ public class UserControllerV1 {
             @ApiResponse(responseCode = "403", description = "User not authorized to do this operation", content = @Content(mediaType = "application/json")),
             @ApiResponse(responseCode = "404", description = "User not found", content = @Content(mediaType = "application/json")),
             @ApiResponse(responseCode = "405", description = "Wrong Method", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "412", description = "User modified since the version given by If-Match", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "503", description = "Too many concurrent password operations, retry after the given delay", content = @Content(mediaType = "application/json")),
     })
     @PreAuthorize("hasAnyRole('ADMIN', 'USER_ADMIN', 'SIMPLE_USER')")
     @PostMapping("/{id}/password")
-    public ResponseEntity<UserDto> modifyPassword(@PathVariable @Valid long id, @RequestBody @Valid String newPassword) {
+    public ResponseEntity<UserDto> modifyPassword(@PathVariable @Valid long id, @RequestBody @Valid String newPassword,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         UserDto modifiedUser = userMapper.toDto(
-                userService.modifyPassword(id, newPassword)
+                userService.modifyPassword(id, newPassword, expectedVersions(ifMatch))
         );
-        return ResponseEntity.status(HttpStatus.OK).body(modifiedUser);
+        return ResponseEntity.status(HttpStatus.OK).eTag(etag(modifiedUser.getVersion())).body(modifiedUser);
     }
 
-    @Operation(summary = "Modify user roles", description = "Replacing the roles of an existing user")
+    @Operation(summary = "Modify user roles", description = "Replacing the roles of an existing user, only if it still has the version given by If-Match if any")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User roles modified successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid request payload / Role not found / Wrong ID format", content = @Content(mediaType = "application/json")),
             @ApiResponse(responseCode = "401", description = "Unauthorized - JWT Token is missing or invalid", content = @Content(mediaType = "application/json")),
             @ApiResponse(responseCode = "403", description = "User not authorized to do this operation / Cannot give user role ADMIN / Cannot modify ADMIN roles", content = @Content(mediaType = "application/json")),
             @ApiResponse(responseCode = "404", description = "User not found", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "412", description = "User modified since the version given by If-Match", content = @Content(mediaType = "application/json")),
     })
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping("{id}/modify")
-    public ResponseEntity<UserDto> modifyRole(@PathVariable @Valid long id, @RequestBody @Valid Set<String> roles) {
+    public ResponseEntity<UserDto> modifyRole(@PathVariable @Valid long id, @RequestBody @Valid Set<String> roles,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         UserDto modifiedUser = userMapper.toDto(
-                userService.modifyRole(id, roles)
+                userService.modifyRole(id, roles, expectedVersions(ifMatch))
         );
-        return ResponseEntity.status(HttpStatus.OK).body(modifiedUser);
+        return ResponseEntity.status(HttpStatus.OK).eTag(etag(modifiedUser.getVersion())).body(modifiedUser);
     }
 
     @Operation(summary = "Create a new user", description = "Registers a new user with the provided details")
@@ -103,6 +169,7 @@ public class UserControllerV1 {
             @ApiResponse(responseCode = "401", description = "Unauthorized - JWT Token is missing or invalid", content = @Content(mediaType = "application/json")),
             @ApiResponse(responseCode = "403", description = "User not authorized to do this operation / Cannot register user with ADMIN role", content = @Content(mediaType = "application/json")),
             @ApiResponse(responseCode = "409", description = "Username already exists", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "503", description = "Too many concurrent password operations, retry after the given delay", content = @Content(mediaType = "application/json")),
     })
     @PreAuthorize("hasAnyRole('ADMIN', 'USER_ADMIN')")
     @PostMapping("/create")
@@ -112,4 +179,48 @@ public class UserControllerV1 {
         );
         return ResponseEntity.status(HttpStatus.CREATED).body(createdUser);
     }
+
+    @Operation(summary = "Create users in batch", description = "Registers many users at once and returns one result per requested user, in request order")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see each item for its result"),
+            @ApiResponse(responseCode = "400", description = "Invalid request payload", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - JWT Token is missing or invalid", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "403", description = "User not authorized to do this operation", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "413", description = "Too many users in the batch", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "503", description = "Too many concurrent password operations, retry after the given delay", content = @Content(mediaType = "application/json")),
+    })
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER_ADMIN')")
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchUserResultDto>> registerUsers(@RequestBody List<CreateUserDto> userDtos) {
+        List<BatchRegistrationResult> results = userService.registerUsers(userDtos);
+        List<BatchUserResultDto> response = IntStream.range(0, results.size())
+                .mapToObj(index -> userMapper.toDto(index, results.get(index)))
+                .toList();
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    private static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Versions listed by an If-Match header, or null if there is none or it is "*". Weak ETags never match.
+     */
+    private static Set<Long> expectedVersions(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Set<Long> versions = new HashSet<>();
+        for (String tag : ifMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                try {
+                    versions.add(Long.parseLong(tag.substring(1, tag.length() - 1)));
+                } catch (NumberFormatException e) {
+                    // Not one of our ETags
+                }
+            }
+        }
+        return versions;
+    }
 }
@@ -0,0 +1,81 @@
+package trainning.api.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import trainning.api.dto.UserJobDto;
+import trainning.api.dto.UserJobRequestDto;
+import trainning.api.mapper.UserMapper;
+import trainning.api.model.UserJobModel;
+import trainning.api.service.UserJobService;
+
+@RestController
+@RequestMapping("/v1/user/jobs")
+@Validated
+@Tag(name = "User Jobs", description = "Endpoints for changing many users at once in the background")
+public class UserJobControllerV1 {
+    @Autowired
+    private UserJobService userJobService;
+    @Autowired
+    private UserMapper userMapper;
+
+    @Operation(summary = "Modify roles of many users", description = "Starts replacing the roles of the given users, or of every user having a role. Users with the ADMIN role are skipped")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Job started, poll the returned location for its progress"),
+            @ApiResponse(responseCode = "400", description = "Invalid request payload / Role not found", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - JWT Token is missing or invalid", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "403", description = "User not authorized to do this operation / Cannot give user role ADMIN", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "413", description = "Too many user IDs", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "503", description = "Too many jobs queued, retry after the given delay", content = @Content(mediaType = "application/json")),
+    })
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping("/roles")
+    public ResponseEntity<UserJobDto> modifyRoles(@RequestBody @Valid UserJobRequestDto request) {
+        return accepted(userJobService.setRoles(request.getUserIds(), request.getRole(), request.getRoles()));
+    }
+
+    @Operation(summary = "Delete many users", description = "Starts deleting the given users, or every user having a role. Users with the ADMIN role are skipped")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Job started, poll the returned location for its progress"),
+            @ApiResponse(responseCode = "400", description = "Invalid request payload / Role not found", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - JWT Token is missing or invalid", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "403", description = "User not authorized to do this operation", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "413", description = "Too many user IDs", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "503", description = "Too many jobs queued, retry after the given delay", content = @Content(mediaType = "application/json")),
+    })
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER_ADMIN')")
+    @PostMapping("/delete")
+    public ResponseEntity<UserJobDto> deleteUsers(@RequestBody @Valid UserJobRequestDto request) {
+        return accepted(userJobService.deleteUsers(request.getUserIds(), request.getRole()));
+    }
+
+    @Operation(summary = "Get job progress", description = "Retrieves the status and progress of a job")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Job found"),
+            @ApiResponse(responseCode = "400", description = "Wrong ID format"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - JWT Token is missing or invalid", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "403", description = "User not authorized to do this operation", content = @Content(mediaType = "application/json")),
+            @ApiResponse(responseCode = "404", description = "Job not found", content = @Content(mediaType = "application/json")),
+    })
+    @PreAuthorize("hasAnyRole('ADMIN', 'USER_ADMIN')")
+    @GetMapping("/{id}")
+    public ResponseEntity<UserJobDto> getJob(@PathVariable @Valid long id) {
+        return ResponseEntity.status(HttpStatus.OK).body(userMapper.toDto(userJobService.getJob(id)));
+    }
+
+    private ResponseEntity<UserJobDto> accepted(UserJobModel job) {
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath().path("/v1/user/jobs/{id}").build(job.getId()))
+                .body(userMapper.toDto(job));
+    }
+}
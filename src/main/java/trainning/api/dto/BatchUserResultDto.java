@@ -0,0 +1,21 @@
+package trainning.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@AllArgsConstructor
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Result of one item of a batch user creation")
+public class BatchUserResultDto {
+    @Schema(description = "Position of the item in the request")
+    private final int index;
+    @Schema(description = "Requested username")
+    private final String username;
+    @Schema(description = "Created user, if successful")
+    private final UserDto user;
+    @Schema(description = "Reason of the failure, if unsuccessful")
+    private final String error;
+}
@@ -0,0 +1,17 @@
+package trainning.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Schema(description = "Token refresh request DTO")
+public class RefreshDto {
+    @Schema(description = "Refresh token returned in the Refresh-Token header of the last authentication")
+    @NotNull(message = "Refresh token must not be null")
+    private String refreshToken;
+}
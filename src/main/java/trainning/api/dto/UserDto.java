@@ -1,10 +1,12 @@
 package trainning.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import trainning.api.model.RoleModel;
 
+import java.util.Collection;
 import java.util.Set;
 
 @Getter
@@ -17,12 +19,28 @@ public class UserDto {
     @NotNull(message = "Username must not be null")
     private final String username;
     private final Set<RoleDto> roles;
+    @JsonIgnore
+    private final Long version; // Sent as the ETag, null when not loaded
 
-    public UserDto(Long id, String username, Set<RoleModel> roles) {
+    public UserDto(Long id, String username, Set<RoleModel> roles, long version) {
         this.id = id;
         this.username = username;
         this.roles = roles.stream()
                 .map(role -> new RoleDto(role.getName()))
                 .collect(java.util.stream.Collectors.toSet());
+        this.version = version;
+    }
+
+    public UserDto(Long id, String username, Collection<String> roleNames) {
+        this(id, username, roleNames, null);
+    }
+
+    public UserDto(Long id, String username, Collection<String> roleNames, Long version) {
+        this.id = id;
+        this.username = username;
+        this.roles = roleNames.stream()
+                .map(RoleDto::new)
+                .collect(java.util.stream.Collectors.toSet());
+        this.version = version;
     }
 }
@@ -0,0 +1,33 @@
+package trainning.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import trainning.api.model.UserJobOperation;
+import trainning.api.model.UserJobStatus;
+
+@AllArgsConstructor
+@Getter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Progress of a job over users")
+public class UserJobDto {
+    @Schema(description = "Job ID")
+    private final long id;
+    @Schema(description = "Operation applied to each user")
+    private final UserJobOperation operation;
+    @Schema(description = "PENDING, RUNNING, SUCCEEDED or FAILED")
+    private final UserJobStatus status;
+    @Schema(description = "Number of targeted users, estimated when selected by role")
+    private final long total;
+    @Schema(description = "Number of users processed so far")
+    private final long processed;
+    @Schema(description = "Number of processed users that were changed, the others were skipped (not found or ADMIN)")
+    private final long affected;
+    @Schema(description = "Reason of the failure, if failed")
+    private final String error;
+    @Schema(description = "Creation time, in milliseconds since the epoch")
+    private final long createdAt;
+    @Schema(description = "End time, in milliseconds since the epoch, if finished")
+    private final Long finishedAt;
+}
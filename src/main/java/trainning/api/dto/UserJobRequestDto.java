@@ -0,0 +1,20 @@
+package trainning.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Set;
+
+@AllArgsConstructor
+@Getter
+@Schema(description = "Users targeted by a job, either by ID or by role, and the roles to give them if any")
+public class UserJobRequestDto {
+    @Schema(description = "IDs of the users, if not selected by role")
+    private List<Long> userIds;
+    @Schema(description = "Role of the users, if not selected by ID")
+    private String role;
+    @Schema(description = "Roles replacing those of each user, for a role change")
+    private Set<String> roles;
+}
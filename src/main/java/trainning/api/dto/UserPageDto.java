@@ -0,0 +1,17 @@
+package trainning.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@AllArgsConstructor
+@Getter
+@Schema(description = "Page of users, ordered by ID")
+public class UserPageDto {
+    @Schema(description = "Users of the page")
+    private final List<UserDto> users;
+    @Schema(description = "Value to pass as 'after' to fetch the next page, null if this is the last page")
+    private final Long nextAfter;
+}
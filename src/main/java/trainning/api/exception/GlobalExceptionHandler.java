@@ -1,45 +1,109 @@
 package trainning.api.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @ExceptionHandler(UserNotFoundException.class)
     public ResponseEntity<String> handleUserNotFoundException(UserNotFoundException ex) {
-        return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
+        return respond(ex, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(UserJobNotFoundException.class)
+    public ResponseEntity<String> handleUserJobNotFoundException(UserJobNotFoundException ex) {
+        return respond(ex, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(InvalidUserJobException.class)
+    public ResponseEntity<String> handleInvalidUserJobException(InvalidUserJobException ex) {
+        return respond(ex, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(InvalidCredentialsException.class)
     public ResponseEntity<String> handleInvalidCredentialsException(InvalidCredentialsException ex) {
-        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+        return respond(ex, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<String> handleInvalidRefreshTokenException(InvalidRefreshTokenException ex) {
+        return respond(ex, HttpStatus.UNAUTHORIZED);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<String> handlePreconditionFailedException(PreconditionFailedException ex) {
+        return respond(ex, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(ObjectOptimisticLockingFailureException ex) {
+        count(ex, HttpStatus.CONFLICT);
+        return new ResponseEntity<>("The user was modified concurrently, retry", HttpStatus.CONFLICT);
     }
 
     @ExceptionHandler(UserAlreadyExistsException.class)
     public ResponseEntity<String> handleUserAlreadyExistsException(UserAlreadyExistsException ex) {
-        return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
+        return respond(ex, HttpStatus.CONFLICT);
     }
 
     @ExceptionHandler(InvalidRoleException.class)
     public ResponseEntity<String> handleInvalidRoleException(InvalidRoleException ex) {
-        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+        return respond(ex, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(AdminRoleException.class)
     public ResponseEntity<String> handleAdminRoleException(AdminRoleException ex) {
-        return new ResponseEntity<>(ex.getMessage(), HttpStatus.FORBIDDEN);
+        return respond(ex, HttpStatus.FORBIDDEN);
     }
 
     @ExceptionHandler(InvalidPasswordException.class)
     public ResponseEntity<String> handleInvalidPasswordException(InvalidPasswordException ex) {
-        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+        return respond(ex, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(UserNotAllowedException.class)
     public ResponseEntity<String> handleUnauthorizedException(UserNotAllowedException ex) {
-        return new ResponseEntity<>(ex.getMessage(), HttpStatus.FORBIDDEN);
+        return respond(ex, HttpStatus.FORBIDDEN);
+    }
+
+    @ExceptionHandler(BatchTooLargeException.class)
+    public ResponseEntity<String> handleBatchTooLargeException(BatchTooLargeException ex) {
+        return respond(ex, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    @ExceptionHandler(ServerBusyException.class)
+    public ResponseEntity<String> handleServerBusyException(ServerBusyException ex) {
+        count(ex, HttpStatus.SERVICE_UNAVAILABLE);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<String> handleTooManyRequestsException(TooManyRequestsException ex) {
+        count(ex, HttpStatus.TOO_MANY_REQUESTS);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ex.getMessage());
+    }
+
+    private ResponseEntity<String> respond(RuntimeException ex, HttpStatus status) {
+        count(ex, status);
+        return new ResponseEntity<>(ex.getMessage(), status);
+    }
+
+    private void count(RuntimeException ex, HttpStatus status) {
+        meterRegistry.counter("api.exceptions",
+                "exception", ex.getClass().getSimpleName(),
+                "status", String.valueOf(status.value())).increment();
     }
 }
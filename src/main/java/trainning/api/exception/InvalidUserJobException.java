@@ -0,0 +1,7 @@
+package trainning.api.exception;
+
+public class InvalidUserJobException extends RuntimeException {
+    public InvalidUserJobException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package trainning.api.exception;
+
+import lombok.Getter;
+
+@Getter
+public class ServerBusyException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public ServerBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
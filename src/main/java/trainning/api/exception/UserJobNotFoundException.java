@@ -0,0 +1,7 @@
+package trainning.api.exception;
+
+public class UserJobNotFoundException extends RuntimeException {
+    public UserJobNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -1,12 +1,25 @@
 package trainning.api.mapper;
 
 import org.springframework.stereotype.Component;
+import trainning.api.dto.BatchUserResultDto;
 import trainning.api.dto.UserDto;
+import trainning.api.dto.UserJobDto;
+import trainning.api.model.UserJobModel;
 import trainning.api.model.UserModel;
+import trainning.api.service.BatchRegistrationResult;
 
 @Component
 public class UserMapper {
     public UserDto toDto(UserModel user) {
-        return new UserDto(user.getId(), user.getUsername(), user.getRoles());
+        return new UserDto(user.getId(), user.getUsername(), user.getRoles(), user.getVersion());
+    }
+
+    public BatchUserResultDto toDto(int index, BatchRegistrationResult result) {
+        return new BatchUserResultDto(index, result.username(), result.user() == null ? null : toDto(result.user()), result.error());
+    }
+
+    public UserJobDto toDto(UserJobModel job) {
+        return new UserJobDto(job.getId(), job.getOperation(), job.getStatus(), job.getTotal(), job.getProcessed(),
+                job.getAffected(), job.getError(), job.getCreatedAt(), job.getFinishedAt());
     }
 }
@@ -0,0 +1,39 @@
+package trainning.api.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * A refresh token, stored as the SHA-256 hash of its secret. Tokens rotated from the same login share a family, which
+ * is revoked as a whole when a used token is presented again.
+ */
+@Getter
+@Entity
+@Table(name = "api_refresh_token", indexes = {
+        @Index(name = "idx_api_refresh_token_family", columnList = "family_id"),
+        @Index(name = "idx_api_refresh_token_user", columnList = "api_user_id")
+})
+@NoArgsConstructor
+public class RefreshTokenModel {
+    @Id
+    @SnowflakeId
+    private long id;
+    @Column(name = "family_id", nullable = false)
+    private long familyId;
+    @Column(name = "api_user_id", nullable = false)
+    private long userId;
+    @Column(name = "token_hash", nullable = false, length = 32)
+    private byte[] tokenHash;
+    @Column(name = "expires_at", nullable = false)
+    private long expiresAt; // In milliseconds, inherited from the family's first token
+    @Column(name = "used", nullable = false)
+    private boolean used;
+
+    public RefreshTokenModel(long familyId, long userId, byte[] tokenHash, long expiresAt) {
+        this.familyId = familyId;
+        this.userId = userId;
+        this.tokenHash = tokenHash;
+        this.expiresAt = expiresAt;
+    }
+}
@@ -3,12 +3,16 @@ package trainning.api.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "api_role")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "role")
 public class RoleModel {
     @Id
-    @GeneratedValue
+    @SnowflakeId
     private Long id;
 
     @Getter
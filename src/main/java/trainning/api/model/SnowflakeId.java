@@ -0,0 +1,19 @@
+package trainning.api.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Generates the annotated ID in the application with {@link SnowflakeIdGenerator}, instead of using a database
+ * sequence.
+ */
+@IdGeneratorType(SnowflakeIdGenerator.class)
+@Retention(RUNTIME)
+@Target(FIELD)
+public @interface SnowflakeId {
+}
@@ -0,0 +1,99 @@
+package trainning.api.model;
+
+import jakarta.annotation.PostConstruct;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.function.LongSupplier;
+
+/**
+ * Generates time-ordered 64-bit IDs without any database round trip, Snowflake-style:
+ * 41 bits of milliseconds since {@link #EPOCH_MS}, 10 bits of node ID and a 12-bit per-millisecond sequence.
+ * <p>
+ * Each API instance must be given a distinct node ID ({@code id.node-id}, from 0 to 1023). IDs are always greater
+ * than any value previously allocated by the database sequences, so existing rows stay valid. If the clock goes back
+ * by up to {@code id.max-clock-drift-ms} milliseconds, generation waits for it to catch up; beyond that it fails
+ * rather than risking duplicate IDs.
+ * <p>
+ * Like entity listeners, generators are instantiated by Hibernate through the Spring bean container.
+ */
+public class SnowflakeIdGenerator implements BeforeExecutionGenerator {
+    static final long EPOCH_MS = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_ID_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_ID_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    @Value("${id.node-id:0}")
+    private long nodeId;
+    @Value("${id.max-clock-drift-ms:10}")
+    private long maxClockDriftMs;
+    private final LongSupplier clock;
+    private long lastTimestamp = -1;
+    private long sequence;
+
+    public SnowflakeIdGenerator() {
+        this.clock = System::currentTimeMillis;
+    }
+
+    SnowflakeIdGenerator(long nodeId, long maxClockDriftMs, LongSupplier clock) {
+        this.nodeId = nodeId;
+        this.maxClockDriftMs = maxClockDriftMs;
+        this.clock = clock;
+        init();
+    }
+
+    @PostConstruct
+    public void init() {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("id.node-id must be between 0 and " + MAX_NODE_ID + ", got " + nodeId);
+        }
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return nextId();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    public synchronized long nextId() {
+        long timestamp = clock.getAsLong();
+        if (timestamp < lastTimestamp) {
+            long drift = lastTimestamp - timestamp;
+            if (drift > maxClockDriftMs) {
+                throw new IllegalStateException("Clock moved backwards by " + drift + " ms, refusing to generate IDs");
+            }
+            timestamp = waitUntilAfter(lastTimestamp - 1);
+        }
+
+        if (timestamp == lastTimestamp) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) { // Sequence exhausted for this millisecond
+                timestamp = waitUntilAfter(lastTimestamp);
+            }
+        } else {
+            sequence = 0;
+        }
+        lastTimestamp = timestamp;
+
+        return ((timestamp - EPOCH_MS) << (NODE_ID_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    private long waitUntilAfter(long timestamp) {
+        long now = clock.getAsLong();
+        while (now <= timestamp) {
+            Thread.onSpinWait();
+            now = clock.getAsLong();
+        }
+        return now;
+    }
+}
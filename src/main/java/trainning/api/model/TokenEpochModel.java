@@ -0,0 +1,26 @@
+package trainning.api.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Tokens of the user minted with a lower epoch are revoked. The epoch is a counter bumped by each revocation, and kept
+ * apart from the user table, so that it survives the deletion of the user. Written with SQL by
+ * {@link trainning.api.security.TokenRevocationRegistry}.
+ */
+@Getter
+@Entity
+@Table(name = "api_token_epoch", indexes = @Index(name = "idx_api_token_epoch_revoked_at", columnList = "revoked_at"))
+@NoArgsConstructor
+public class TokenEpochModel {
+    @Id
+    @Column(name = "api_user_id")
+    private long userId;
+    @Column(name = "epoch", nullable = false)
+    private long epoch;
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt; // Database time of the last revocation
+}
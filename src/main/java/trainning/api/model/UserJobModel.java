@@ -0,0 +1,50 @@
+package trainning.api.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * A bulk operation over users, run in chunks in the background. Progress is updated in the transaction of each chunk,
+ * so it always matches what has been committed.
+ */
+@Getter
+@Entity
+@Table(name = "api_user_job", indexes = @Index(name = "idx_api_user_job_finished_at", columnList = "finished_at"))
+@NoArgsConstructor
+public class UserJobModel {
+    @Id
+    @SnowflakeId
+    private long id;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "operation", nullable = false, length = 32)
+    private UserJobOperation operation;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 32)
+    private UserJobStatus status;
+    @Column(name = "node_id", nullable = false)
+    private long nodeId;
+    @Column(name = "requested_by", nullable = false)
+    private long requestedBy;
+    @Column(name = "total", nullable = false)
+    private long total; // Estimated when users are selected by role
+    @Column(name = "processed", nullable = false)
+    private long processed;
+    @Column(name = "affected", nullable = false)
+    private long affected; // Processed users that were changed, the others were skipped
+    @Column(name = "error", length = 1024)
+    private String error;
+    @Column(name = "created_at", nullable = false)
+    private long createdAt;
+    @Column(name = "finished_at")
+    private Long finishedAt;
+
+    public UserJobModel(UserJobOperation operation, long nodeId, long requestedBy, long total) {
+        this.operation = operation;
+        this.status = UserJobStatus.PENDING;
+        this.nodeId = nodeId;
+        this.requestedBy = requestedBy;
+        this.total = total;
+        this.createdAt = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,6 @@
+package trainning.api.model;
+
+public enum UserJobOperation {
+    SET_ROLES,
+    DELETE
+}
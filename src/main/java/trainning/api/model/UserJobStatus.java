@@ -0,0 +1,8 @@
+package trainning.api.model;
+
+public enum UserJobStatus {
+    PENDING,
+    RUNNING,
+    SUCCEEDED,
+    FAILED
+}
@@ -3,6 +3,9 @@ package trainning.api.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import trainning.api.cache.UserMembershipListener;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -10,9 +13,12 @@ import java.util.Set;
 @Getter
 @Entity
 @Table(name = "api_user")
+@EntityListeners(UserMembershipListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 public class UserModel {
     @Id
-    @GeneratedValue
+    @SnowflakeId
     private long id;
     @Setter
     @Column(name = "username", nullable = false, unique = true)
@@ -20,8 +26,12 @@ public class UserModel {
     @Setter
     @Column(name = "password", nullable = false)
     private String password;
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version; // Bumped by any change, including of the roles
 
     @ManyToMany(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-roles")
     @JoinTable(name = "api_user_role",
             joinColumns = @JoinColumn(name = "api_user_id"),
             inverseJoinColumns = @JoinColumn(name = "api_role_id"))
@@ -0,0 +1,35 @@
+package trainning.api.repository;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import trainning.api.model.RefreshTokenModel;
+
+import java.util.Collection;
+
+@Repository
+public interface RefreshTokenRepository extends CrudRepository<RefreshTokenModel, Long> {
+    /**
+     * Marks the token as used, unless it already was: returns 0 when it has been presented before.
+     */
+    @Modifying
+    @Query("UPDATE RefreshTokenModel t SET t.used = true WHERE t.id = :id AND t.used = false")
+    int markUsed(long id);
+
+    @Modifying
+    @Query("DELETE FROM RefreshTokenModel t WHERE t.familyId = :familyId")
+    int deleteFamily(long familyId);
+
+    @Modifying
+    @Query("DELETE FROM RefreshTokenModel t WHERE t.userId = :userId")
+    int deleteByUserId(long userId);
+
+    @Modifying
+    @Query("DELETE FROM RefreshTokenModel t WHERE t.userId IN :userIds")
+    int deleteByUserIds(Collection<Long> userIds);
+
+    @Modifying
+    @Query("DELETE FROM RefreshTokenModel t WHERE t.expiresAt < :now")
+    int deleteExpired(long now);
+}
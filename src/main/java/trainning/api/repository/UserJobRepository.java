@@ -0,0 +1,35 @@
+package trainning.api.repository;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import trainning.api.model.UserJobModel;
+import trainning.api.model.UserJobStatus;
+
+@Repository
+public interface UserJobRepository extends CrudRepository<UserJobModel, Long> {
+    @Modifying
+    @Query("UPDATE UserJobModel j SET j.status = :status WHERE j.id = :id")
+    int updateStatus(long id, UserJobStatus status);
+
+    @Modifying
+    @Query("UPDATE UserJobModel j SET j.processed = j.processed + :processed, j.affected = j.affected + :affected WHERE j.id = :id")
+    int addProgress(long id, long processed, long affected);
+
+    @Modifying
+    @Query("UPDATE UserJobModel j SET j.status = :status, j.error = :error, j.finishedAt = :now WHERE j.id = :id")
+    int finish(long id, UserJobStatus status, String error, long now);
+
+    /**
+     * Fails the jobs the node left unfinished, e.g. when it was stopped while running them.
+     */
+    @Modifying
+    @Query("UPDATE UserJobModel j SET j.status = trainning.api.model.UserJobStatus.FAILED, j.error = :error, j.finishedAt = :now "
+            + "WHERE j.nodeId = :nodeId AND j.finishedAt IS NULL")
+    int failUnfinished(long nodeId, String error, long now);
+
+    @Modifying
+    @Query("DELETE FROM UserJobModel j WHERE j.finishedAt < :before")
+    int deleteFinishedBefore(long before);
+}
@@ -1,10 +1,46 @@
 package trainning.api.repository;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 import trainning.api.model.UserModel;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface UserRepository extends CrudRepository<UserModel, Long> {
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true")) // Only effective with the query cache enabled
     UserModel findByUsername(String username);
+
+    @Query("SELECT u.id AS id, u.username AS username, u.version AS version, r.name AS roleName FROM UserModel u LEFT JOIN u.roles r WHERE u.id = :id")
+    List<UserWithRoleName> findWithRoleNamesById(long id);
+
+    @Query("SELECT u.version FROM UserModel u WHERE u.id = :id")
+    Optional<Long> findVersionById(long id);
+
+    /**
+     * Replaces the password hash, unless it changed since it was read: returns 0 in that case. Other columns are left
+     * as they are, so a stale copy of the user cannot overwrite them.
+     */
+    @Modifying
+    @Query("UPDATE UserModel u SET u.password = :newPassword, u.version = u.version + 1 WHERE u.id = :id AND u.password = :oldPassword")
+    int updatePassword(long id, String oldPassword, String newPassword);
+
+    @Query("SELECT u.username FROM UserModel u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(Collection<String> usernames);
+
+    @Query("SELECT u.id AS id, u.username AS username FROM UserModel u WHERE u.id > :after ORDER BY u.id")
+    List<UserSummary> findPageAfter(long after, Limit limit);
+
+    @Query("SELECT u.id AS id, u.username AS username FROM UserModel u JOIN u.roles r WHERE u.id > :after AND r.name = :role ORDER BY u.id")
+    List<UserSummary> findPageAfterWithRole(long after, String role, Limit limit);
+
+    @Query("SELECT u.id AS userId, r.name AS roleName FROM UserModel u JOIN u.roles r WHERE u.id IN :ids")
+    List<UserRoleName> findRoleNames(Collection<Long> ids);
 }
@@ -0,0 +1,10 @@
+package trainning.api.repository;
+
+/**
+ * Projection of one row of the user/role association, as a role name.
+ */
+public interface UserRoleName {
+    Long getUserId();
+
+    String getRoleName();
+}
@@ -0,0 +1,10 @@
+package trainning.api.repository;
+
+/**
+ * Projection of the scalar columns of a user, without hydrating the entity nor its roles.
+ */
+public interface UserSummary {
+    Long getId();
+
+    String getUsername();
+}
@@ -0,0 +1,14 @@
+package trainning.api.repository;
+
+/**
+ * Projection of a user joined with one of its role names, or a null role name if it has none.
+ */
+public interface UserWithRoleName {
+    Long getId();
+
+    String getUsername();
+
+    Long getVersion();
+
+    String getRoleName();
+}
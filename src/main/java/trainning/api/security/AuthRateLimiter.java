@@ -0,0 +1,117 @@
+package trainning.api.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import trainning.api.exception.TooManyRequestsException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token buckets per client IP and per target user, checked before a login attempt so that rejected attempts cost no
+ * password hashing. Buckets are dropped once idle long enough to be full again, and the number of buckets is bounded:
+ * a dropped bucket starts over full.
+ */
+@Component
+public class AuthRateLimiter implements MeterBinder {
+    @Value("${auth.rate-limit.enabled:true}")
+    private boolean enabled;
+    @Value("${auth.rate-limit.max-clients:100000}")
+    private long maxClients;
+    @Value("${auth.rate-limit.ip.capacity:20}")
+    private long ipCapacity;
+    @Value("${auth.rate-limit.ip.per-minute:30}")
+    private long ipPerMinute;
+    @Value("${auth.rate-limit.user.capacity:5}")
+    private long userCapacity;
+    @Value("${auth.rate-limit.user.per-minute:10}")
+    private long userPerMinute;
+
+    private Limit ipLimit;
+    private Limit userLimit;
+
+    @PostConstruct
+    public void init() {
+        this.ipLimit = new Limit("ip", ipCapacity, ipPerMinute);
+        this.userLimit = new Limit("user", userCapacity, userPerMinute);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        ipLimit.bindTo(registry);
+        userLimit.bindTo(registry);
+    }
+
+    /**
+     * Takes a token from both the client's and the user's bucket.
+     *
+     * @throws TooManyRequestsException if either bucket is empty
+     */
+    public void acquire(String clientIp, Long userId) {
+        if (!enabled) {
+            return;
+        }
+        ipLimit.acquire(clientIp);
+        if (userId != null) {
+            userLimit.acquire(userId);
+        }
+    }
+
+    private class Limit {
+        private final String name;
+        private final long capacity;
+        private final long intervalNanos;
+        private final Cache<Object, TokenBucket> buckets;
+        private Counter allowed;
+        private Counter rejected;
+
+        Limit(String name, long capacity, long perMinute) {
+            this.name = name;
+            this.capacity = capacity;
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / perMinute;
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxClients)
+                    .expireAfterAccess(Duration.ofNanos(capacity * intervalNanos))
+                    .build();
+        }
+
+        void bindTo(MeterRegistry registry) {
+            this.allowed = Counter.builder("auth.rate.limit")
+                    .description("Login attempts checked against the rate limit")
+                    .tag("key", name)
+                    .tag("outcome", "allowed")
+                    .register(registry);
+            this.rejected = Counter.builder("auth.rate.limit")
+                    .description("Login attempts checked against the rate limit")
+                    .tag("key", name)
+                    .tag("outcome", "rejected")
+                    .register(registry);
+            Gauge.builder("auth.rate.limit.buckets", buckets, Cache::estimatedSize)
+                    .description("Clients currently tracked by the rate limit")
+                    .tag("key", name)
+                    .register(registry);
+        }
+
+        void acquire(Object key) {
+            long now = System.nanoTime();
+            long waitNanos = buckets.get(key, k -> new TokenBucket(capacity, intervalNanos, now)).tryAcquire(now);
+            if (waitNanos > 0) {
+                if (rejected != null) {
+                    rejected.increment();
+                }
+                throw new TooManyRequestsException("Too many authentication attempts, retry later",
+                        Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+            }
+            if (allowed != null) {
+                allowed.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package trainning.api.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import trainning.api.exception.ServerBusyException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the (CPU-heavy) delegate encoder on a dedicated, size-capped pool with a bounded queue, so that hashing bursts
+ * cannot starve request threads. When the queue is full, callers fail fast with a {@link ServerBusyException}.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, MeterBinder {
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+
+    private final LongAdder waitNanosTotal = new LongAdder();
+    private final LongAdder completedTasks = new LongAdder();
+    private final AtomicLong lastWaitNanos = new AtomicLong();
+
+    private volatile Timer encodeTimer;
+    private volatile Timer matchesTimer;
+    private volatile Timer waitTimer;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long retryAfterSeconds) {
+        this.delegate = delegate;
+        this.retryAfterSeconds = retryAfterSeconds;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> record(encodeTimer, () -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> record(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    /**
+     * Hashes all passwords in parallel on the pool. At most one task per worker thread is queued at a time, so
+     * interactive requests keep interleaving with a large batch instead of waiting behind it.
+     *
+     * @return the hashes, in the same order as the given passwords
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        int window = executor.getMaximumPoolSize();
+        List<String> hashes = new ArrayList<>(rawPasswords.size());
+        Deque<Future<String>> inFlight = new ArrayDeque<>(window);
+        for (CharSequence rawPassword : rawPasswords) {
+            if (inFlight.size() >= window) {
+                hashes.add(await(inFlight.removeFirst()));
+            }
+            inFlight.addLast(schedule(() -> record(encodeTimer, () -> delegate.encode(rawPassword))));
+        }
+        while (!inFlight.isEmpty()) {
+            hashes.add(await(inFlight.removeFirst()));
+        }
+        return hashes;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public PasswordEncoder getDelegate() {
+        return delegate;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getLastWaitNanos() {
+        return lastWaitNanos.get();
+    }
+
+    public double getAverageWaitNanos() {
+        long count = completedTasks.sum();
+        return count == 0 ? 0 : (double) waitNanosTotal.sum() / count;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        encodeTimer = Timer.builder("password.hash")
+                .description("Time spent hashing a password, excluding queueing")
+                .tag("operation", "encode")
+                .register(registry);
+        matchesTimer = Timer.builder("password.hash")
+                .description("Time spent hashing a password, excluding queueing")
+                .tag("operation", "matches")
+                .register(registry);
+        waitTimer = Timer.builder("password.hash.queue.wait")
+                .description("Time hashing tasks waited for a free hashing thread")
+                .register(registry);
+        Gauge.builder("password.hash.queue.depth", this, BoundedPasswordEncoder::getQueueDepth)
+                .description("Hashing tasks waiting for a free hashing thread")
+                .register(registry);
+        Gauge.builder("password.hash.active", this, BoundedPasswordEncoder::getActiveCount)
+                .description("Hashing threads currently busy")
+                .register(registry);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        return await(schedule(task));
+    }
+
+    private <T> Future<T> schedule(Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                long waited = System.nanoTime() - submittedAt;
+                lastWaitNanos.set(waited);
+                waitNanosTotal.add(waited);
+                completedTasks.increment();
+                Timer timer = waitTimer;
+                if (timer != null) {
+                    timer.record(waited, TimeUnit.NANOSECONDS);
+                }
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            throw new ServerBusyException("Too many concurrent authentication requests, please retry later", retryAfterSeconds);
+        }
+    }
+
+    private static <T> T record(Timer timer, Callable<T> task) throws Exception {
+        return timer == null ? task.call() : timer.recordCallable(task);
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
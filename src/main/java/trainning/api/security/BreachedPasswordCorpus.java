@@ -0,0 +1,153 @@
+package trainning.api.security;
+
+import java.io.BufferedReader;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Read-only set of breached password hashes, stored as a file of sorted, big-endian 64-bit SHA-1 prefixes.
+ * The file is memory-mapped and binary-searched, so lookups take a few dozen page reads at most and the corpus lives
+ * in the page cache instead of the heap. With 64-bit prefixes, a billion entries give a false positive rate around
+ * 5e-11.
+ * <p>
+ * A corpus can be built from the "ordered by hash" SHA-1 dump of Have I Been Pwned (lines such as {@code HASH:count}):
+ * <pre>java -cp target/classes trainning.api.security.BreachedPasswordCorpus pwned-passwords-sha1.txt breached-passwords.bin</pre>
+ */
+public final class BreachedPasswordCorpus implements Closeable {
+    private static final int RECORD_BYTES = Long.BYTES;
+    private static final int SEGMENT_SHIFT = 27; // 2^27 records (1 GiB) per mapping, as a mapping is limited to 2 GiB
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+    private static final int PREFIX_HEX_DIGITS = 16;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long size;
+
+    private BreachedPasswordCorpus(FileChannel channel, MappedByteBuffer[] segments, long size) {
+        this.channel = channel;
+        this.segments = segments;
+        this.size = size;
+    }
+
+    public static BreachedPasswordCorpus open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long bytes = channel.size();
+            if (bytes % RECORD_BYTES != 0) {
+                throw new IOException("Corrupted breached password corpus, size is not a multiple of " + RECORD_BYTES + " bytes: " + path);
+            }
+            long size = bytes / RECORD_BYTES;
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; i++) {
+                long offset = ((long) i << SEGMENT_SHIFT) * RECORD_BYTES;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(bytes - offset, (SEGMENT_MASK + 1) * RECORD_BYTES));
+            }
+            return new BreachedPasswordCorpus(channel, segments, size);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean contains(String password) {
+        return containsPrefix(prefix(password));
+    }
+
+    boolean containsPrefix(long prefix) {
+        long low = 0;
+        long high = size - 1;
+        while (low <= high) {
+            long middle = (low + high) >>> 1;
+            int comparison = Long.compareUnsigned(get(middle), prefix);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long get(long index) {
+        return segments[(int) (index >>> SEGMENT_SHIFT)].getLong((int) (index & SEGMENT_MASK) * RECORD_BYTES);
+    }
+
+    static long prefix(String password) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(hash).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Converts a text file of SHA-1 hashes sorted in ascending order (one hex hash per line, optionally followed by
+     * {@code :count}) into a corpus file. The input is streamed, so its size is not limited by the heap.
+     *
+     * @return the number of entries written
+     */
+    public static long convert(Path source, Path target) throws IOException {
+        long count = 0;
+        long previous = 0;
+        try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.US_ASCII);
+             DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(target), 1 << 16))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (line.length() < PREFIX_HEX_DIGITS) {
+                    throw new IllegalArgumentException("Line " + lineNumber + " is not a SHA-1 hash: " + line);
+                }
+                long prefix = Long.parseUnsignedLong(line, 0, PREFIX_HEX_DIGITS, 16);
+                if (count > 0) {
+                    int comparison = Long.compareUnsigned(previous, prefix);
+                    if (comparison > 0) {
+                        throw new IllegalArgumentException("Hashes must be sorted in ascending order, line " + lineNumber + " is not");
+                    }
+                    if (comparison == 0) {
+                        continue; // Distinct hashes sharing a prefix
+                    }
+                }
+                output.writeLong(prefix);
+                previous = prefix;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BreachedPasswordCorpus <sorted SHA-1 hashes file> <corpus file>");
+            System.exit(1);
+        }
+        long count = convert(Path.of(args[0]), Path.of(args[1]));
+        System.out.println("Wrote " + count + " entries to " + args[1]);
+    }
+}
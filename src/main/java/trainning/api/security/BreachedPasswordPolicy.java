@@ -0,0 +1,29 @@
+package trainning.api.security;
+
+import trainning.api.exception.InvalidPasswordException;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Rejects passwords found in a local breached-password corpus, so the check needs no network access.
+ */
+public class BreachedPasswordPolicy implements PasswordPolicy, Closeable {
+    private final BreachedPasswordCorpus corpus;
+
+    public BreachedPasswordPolicy(BreachedPasswordCorpus corpus) {
+        this.corpus = corpus;
+    }
+
+    @Override
+    public void validate(String password) {
+        if (corpus.contains(password)) {
+            throw new InvalidPasswordException("Password appears in a list of breached passwords, please choose another one");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        corpus.close();
+    }
+}
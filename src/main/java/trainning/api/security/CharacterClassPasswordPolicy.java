@@ -0,0 +1,62 @@
+package trainning.api.security;
+
+import trainning.api.exception.InvalidPasswordException;
+
+/**
+ * Requires a minimum length and at least one digit, lowercase letter, uppercase letter and special character.
+ * Checks every character class in a single pass without allocating.
+ */
+public class CharacterClassPasswordPolicy implements PasswordPolicy {
+    private static final int DIGIT = 1;
+    private static final int LOWERCASE = 1 << 1;
+    private static final int UPPERCASE = 1 << 2;
+    private static final int SPECIAL = 1 << 3;
+    private static final int ALL = DIGIT | LOWERCASE | UPPERCASE | SPECIAL;
+
+    private final int minLength;
+    private final boolean[] specialCharacters = new boolean[128]; // ASCII lookup table
+    private final String message;
+
+    public CharacterClassPasswordPolicy(int minLength, String specialCharacters) {
+        this.minLength = minLength;
+        for (char c : specialCharacters.toCharArray()) {
+            if (c >= this.specialCharacters.length) {
+                throw new IllegalArgumentException("Special characters must be ASCII: " + c);
+            }
+            this.specialCharacters[c] = true;
+        }
+        this.message = "Password must be at least " + minLength + " characters long, contain at least one digit, one lowercase letter, one uppercase letter, and one special character";
+    }
+
+    @Override
+    public void validate(String password) {
+        if (password.length() < minLength) {
+            throw new InvalidPasswordException(message);
+        }
+
+        int classes = 0;
+        for (int i = 0; i < password.length(); i++) {
+            char c = password.charAt(i);
+            if (c >= '0' && c <= '9') {
+                classes |= DIGIT;
+            } else if (c >= 'a' && c <= 'z') {
+                classes |= LOWERCASE;
+            } else if (c >= 'A' && c <= 'Z') {
+                classes |= UPPERCASE;
+            } else if (c < specialCharacters.length && specialCharacters[c]) {
+                classes |= SPECIAL;
+            } else if (isLineTerminator(c)) {
+                throw new InvalidPasswordException(message);
+            }
+        }
+
+        if (classes != ALL) {
+            throw new InvalidPasswordException(message);
+        }
+    }
+
+    // Line terminators have always been rejected by the password policy
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
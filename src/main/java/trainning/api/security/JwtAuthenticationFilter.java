@@ -6,18 +6,27 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 @AllArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    // Role names form a tiny closed set, so authorities are interned instead of allocated per request
+    private static final Map<String, GrantedAuthority> AUTHORITIES = new ConcurrentHashMap<>();
+
     private JwtUtil jwtUtil;
+    private TokenAuthenticationCache tokenCache;
+    private TokenRevocationRegistry tokenRevocations;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -27,16 +36,38 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
             String token = authorizationHeader.substring(7);
 
-            if (jwtUtil.validateToken(token)) {
-                Long userId = jwtUtil.getIdFromToken(token);
-                List<GrantedAuthority> authorities = jwtUtil.getRolesFromToken(token).stream()
-                        .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-                        .collect(Collectors.toList());
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userId, null, authorities);
+            Authentication authentication = tokenCache.get(token);
+            if (authentication == null) {
+                Optional<JwtPrincipal> principal = jwtUtil.verifyToken(token);
+                if (principal.isPresent()) {
+                    UsernamePasswordAuthenticationToken verified = new UsernamePasswordAuthenticationToken(
+                            principal.get().getId(), null, toAuthorities(principal.get().getRoles()));
+                    verified.setDetails(principal.get());
+                    tokenCache.put(token, verified, principal.get().getExpiresAtMs());
+                    authentication = verified;
+                }
+            }
+            if (authentication != null && !isRevoked((JwtPrincipal) authentication.getDetails())) {
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         }
         filterChain.doFilter(request, response);
     }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false; // Streaming responses are authorized again on their async dispatch
+    }
+
+    private boolean isRevoked(JwtPrincipal principal) {
+        return tokenRevocations.isRevoked(principal.getId(), principal.getTokenEpoch());
+    }
+
+    static List<GrantedAuthority> toAuthorities(List<String> roles) {
+        List<GrantedAuthority> authorities = new ArrayList<>(roles.size());
+        for (String role : roles) {
+            authorities.add(AUTHORITIES.computeIfAbsent(role, name -> new SimpleGrantedAuthority("ROLE_" + name)));
+        }
+        return authorities;
+    }
 }
@@ -0,0 +1,18 @@
+package trainning.api.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Immutable result of a successful token verification: everything the filter needs, extracted in a single parse.
+ */
+@AllArgsConstructor
+@Getter
+public final class JwtPrincipal {
+    private final Long id;
+    private final List<String> roles;
+    private final long expiresAtMs;
+    private final long tokenEpoch; // Epoch of the user when the token was minted, compared with its current one
+}
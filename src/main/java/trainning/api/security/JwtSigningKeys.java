@@ -0,0 +1,113 @@
+package trainning.api.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import lombok.Getter;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Asymmetric signing keys: the private key tokens are signed with, and the public keys of every key ID that may still
+ * verify tokens. Keys are rotated by adding a new key to the key store, publishing it for at least the JWKS cache
+ * lifetime, then making it the active one and removing the old one once its last tokens have expired.
+ */
+public final class JwtSigningKeys {
+    @Getter
+    private final SignatureAlgorithm algorithm;
+    @Getter
+    private final String activeKeyId;
+    @Getter
+    private final PrivateKey signingKey;
+    private final Map<String, PublicKey> verificationKeys;
+
+    private JwtSigningKeys(SignatureAlgorithm algorithm, String activeKeyId, PrivateKey signingKey,
+                           Map<String, PublicKey> verificationKeys) {
+        this.algorithm = algorithm;
+        this.activeKeyId = activeKeyId;
+        this.signingKey = signingKey;
+        this.verificationKeys = Collections.unmodifiableMap(verificationKeys);
+    }
+
+    /**
+     * Loads every key entry of the key store, each one identified by its alias.
+     *
+     * @param activeAlias alias of the key to sign with, optional if the key store holds a single key
+     */
+    public static JwtSigningKeys load(String algorithmId, File keyStoreFile, char[] password, String activeAlias)
+            throws IOException, GeneralSecurityException {
+        SignatureAlgorithm algorithm = algorithm(algorithmId);
+        KeyStore keyStore = KeyStore.getInstance(keyStoreFile, password);
+        Map<String, PublicKey> verificationKeys = new LinkedHashMap<>();
+        for (String alias : Collections.list(keyStore.aliases())) {
+            if (keyStore.isKeyEntry(alias)) {
+                verificationKeys.put(alias, keyStore.getCertificate(alias).getPublicKey());
+            }
+        }
+        if (activeAlias == null || activeAlias.isBlank()) {
+            if (verificationKeys.size() != 1) {
+                throw new IllegalStateException("jwt.signing.active-key must be set when the key store holds "
+                        + verificationKeys.size() + " keys");
+            }
+            activeAlias = verificationKeys.keySet().iterator().next();
+        }
+        if (!verificationKeys.containsKey(activeAlias)) {
+            throw new IllegalStateException("No key named " + activeAlias + " in " + keyStoreFile);
+        }
+        PrivateKey signingKey = (PrivateKey) keyStore.getKey(activeAlias, password);
+        return new JwtSigningKeys(algorithm, activeAlias, signingKey, verificationKeys);
+    }
+
+    /**
+     * Generates a key pair that only lives as long as the instance, for development and tests.
+     */
+    public static JwtSigningKeys ephemeral(String algorithmId) {
+        SignatureAlgorithm algorithm = algorithm(algorithmId);
+        KeyPair keyPair = algorithm == Jwts.SIG.EdDSA
+                ? Jwks.CRV.Ed25519.keyPair().build()
+                : algorithm.keyPair().build();
+        String keyId = Jwks.builder().key(keyPair.getPublic()).idFromThumbprint().build().getId();
+        return new JwtSigningKeys(algorithm, keyId, keyPair.getPrivate(), Map.of(keyId, keyPair.getPublic()));
+    }
+
+    public static boolean isAsymmetric(String algorithmId) {
+        return !"HS256".equals(algorithmId);
+    }
+
+    private static SignatureAlgorithm algorithm(String algorithmId) {
+        return switch (algorithmId) {
+            case "EdDSA" -> Jwts.SIG.EdDSA;
+            case "ES256" -> Jwts.SIG.ES256;
+            default -> throw new IllegalArgumentException("Unsupported jwt.signing.algorithm: " + algorithmId);
+        };
+    }
+
+    public PublicKey getVerificationKey(String keyId) {
+        return keyId == null ? null : verificationKeys.get(keyId);
+    }
+
+    /**
+     * The public keys as JSON Web Keys.
+     */
+    public List<PublicJwk<?>> toJwks() {
+        List<PublicJwk<?>> jwks = new ArrayList<>();
+        verificationKeys.forEach((keyId, key) -> jwks.add(Jwks.builder().key(key)
+                .id(keyId)
+                .algorithm(algorithm.getId())
+                .publicKeyUse("sig")
+                .build()));
+        return jwks;
+    }
+}
@@ -2,41 +2,167 @@ package trainning.api.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SecurityException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import trainning.api.model.RoleModel;
 
 import javax.crypto.SecretKey;
+import java.io.File;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
+@Slf4j
 @Component
 public class JwtUtil {
-    @Value("${jwt.secret}")
+    private static final String VALID = "valid";
+    private static final String INVALID_SIGNATURE = "invalid_signature";
+    private static final String MALFORMED = "malformed";
+    private static final String EXPIRED = "expired";
+    private static final String UNSUPPORTED = "unsupported";
+    private static final String EMPTY = "empty";
+    private static final String EPOCH_CLAIM = "ep";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Value("${jwt.secret:}")
     private String jwtSecret;
     @Value("${jwt.expiration}")
     private int jwtExpirationMs;
-    private SecretKey key;
-    
+    @Value("${jwt.signing.algorithm:HS256}")
+    private String signingAlgorithm = "HS256";
+    @Value("${jwt.signing.key-store:}")
+    private String keyStore;
+    @Value("${jwt.signing.key-store-password:}")
+    private String keyStorePassword;
+    @Value("${jwt.signing.active-key:}")
+    private String activeKey;
+    @Value("${jwt.signing.ephemeral-keys:false}")
+    private boolean ephemeralKeys; // Development only: without a key store, generate a key valid for this instance only
+    private SecretKey key; // Only used with HS256
+    private JwtSigningKeys signingKeys; // Null with HS256
+    private JwtParser parser; // Thread-safe, built once per key
+    private Timer mintTimer;
+    private final Map<String, Timer> verifyTimers = new HashMap<>();
+
     @PostConstruct
     public void init() {
-        this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        if (JwtSigningKeys.isAsymmetric(signingAlgorithm)) {
+            if (keyStore == null || keyStore.isBlank()) {
+                if (!ephemeralKeys) {
+                    throw new IllegalStateException("jwt.signing.key-store must be set with jwt.signing.algorithm="
+                            + signingAlgorithm + ", or jwt.signing.ephemeral-keys=true for a key valid for this instance only");
+                }
+                log.warn("No jwt.signing.key-store, tokens will be signed with a key generated for this instance only");
+                this.signingKeys = JwtSigningKeys.ephemeral(signingAlgorithm);
+            } else {
+                try {
+                    this.signingKeys = JwtSigningKeys.load(signingAlgorithm, new File(keyStore),
+                            keyStorePassword.toCharArray(), activeKey);
+                } catch (IOException | GeneralSecurityException e) {
+                    throw new IllegalStateException("Cannot load the signing keys from " + keyStore, e);
+                }
+            }
+            this.parser = Jwts.parser()
+                    .keyLocator(header -> header instanceof JwsHeader jwsHeader
+                            ? signingKeys.getVerificationKey(jwsHeader.getKeyId())
+                            : null)
+                    .build();
+        } else {
+            this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+            this.parser = Jwts.parser().verifyWith(key).build();
+        }
+        this.mintTimer = Timer.builder("jwt.mint")
+                .description("Time to build and sign a token")
+                .register(meterRegistry);
+        for (String outcome : List.of(VALID, INVALID_SIGNATURE, MALFORMED, EXPIRED, UNSUPPORTED, EMPTY)) {
+            verifyTimers.put(outcome, Timer.builder("jwt.verify")
+                    .description("Time to verify a token and extract its claims")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
     }
     
-    public String generateToken(Long id, Set<RoleModel> roles) {
-        return Jwts.builder()
-                .subject(id.toString())
-                .issuedAt(new Date())
-                .expiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .claim("roles", roles.stream().map(RoleModel::getName).toList())
-                .signWith(key)
-                .compact();
+    /**
+     * @param epoch current token epoch of the user, see {@link TokenRevocationRegistry#currentEpoch(long)}
+     */
+    public String generateToken(Long id, Set<RoleModel> roles, long epoch) {
+        return mintTimer.record(() -> {
+            long now = System.currentTimeMillis();
+            JwtBuilder builder = Jwts.builder();
+            if (signingKeys != null) {
+                builder.header().keyId(signingKeys.getActiveKeyId()).and()
+                        .signWith(signingKeys.getSigningKey(), signingKeys.getAlgorithm());
+            } else {
+                builder.signWith(key);
+            }
+            return builder
+                    .subject(id.toString())
+                    .issuedAt(new Date(now))
+                    .expiration(new Date(now + jwtExpirationMs))
+                    .claim("roles", roles.stream().map(RoleModel::getName).toList())
+                    .claim(EPOCH_CLAIM, epoch)
+                    .compact();
+        });
+    }
+
+    /**
+     * Verifies the token signature and expiry once and extracts all claims needed for authentication.
+     *
+     * @return the parsed principal, or empty if the token is invalid
+     */
+    public Optional<JwtPrincipal> verifyToken(String token) {
+        long start = System.nanoTime();
+        String outcome = VALID;
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            List<?> roles = claims.get("roles", List.class);
+            Long epoch = claims.get(EPOCH_CLAIM, Long.class);
+            return Optional.of(new JwtPrincipal(
+                    Long.valueOf(claims.getSubject()),
+                    roles == null ? List.of() : roles.stream().map(Object::toString).toList(),
+                    claims.getExpiration().getTime(),
+                    epoch == null ? 0 : epoch // Tokens minted before epochs existed
+            ));
+        } catch (SecurityException e) {
+            outcome = INVALID_SIGNATURE;
+            log.debug("Invalid JWT signature: {}", e.getMessage());
+        } catch (MalformedJwtException e) {
+            outcome = MALFORMED;
+            log.debug("Invalid JWT token: {}", e.getMessage());
+        } catch (ExpiredJwtException e) {
+            outcome = EXPIRED;
+            log.debug("JWT token is expired: {}", e.getMessage());
+        } catch (UnsupportedJwtException e) {
+            outcome = UNSUPPORTED;
+            log.debug("JWT token is unsupported: {}", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            outcome = EMPTY;
+            log.debug("JWT claims string is empty: {}", e.getMessage());
+        } finally {
+            verifyTimers.get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return Optional.empty();
     }
     
+    /**
+     * The public keys tokens can be verified with, empty with HS256.
+     */
+    public List<PublicJwk<?>> getPublicKeys() {
+        return signingKeys == null ? List.of() : signingKeys.toJwks();
+    }
+
     public Long getIdFromToken(String token) {
-        String id = Jwts.parser()
-                .verifyWith(key).build()
+        String id = parser
                 .parseSignedClaims(token)
                 .getPayload()
                 .getSubject();
@@ -44,29 +170,13 @@ public class JwtUtil {
     }
 
     public List<String> getRolesFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(key).build()
+        return parser
                 .parseSignedClaims(token)
                 .getPayload()
                 .get("roles", List.class);
     }
 
     public boolean validateToken(String token) {
-        try {
-            Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
-            // TODO: verify that user stills exists with same roles?
-            return true;
-        } catch (SecurityException e) { // TODO: work on better error handling
-            System.out.println("Invalid JWT signature: " + e.getMessage());
-        } catch (MalformedJwtException e) {
-            System.out.println("Invalid JWT token: " + e.getMessage());
-        } catch (ExpiredJwtException e) {
-            System.out.println("JWT token is expired: " + e.getMessage());
-        } catch (UnsupportedJwtException e) {
-            System.out.println("JWT token is unsupported: " + e.getMessage());
-        } catch (IllegalArgumentException e) {
-            System.out.println("JWT claims string is empty: " + e.getMessage());
-        }
-        return false;
+        return verifyToken(token).isPresent();
     }
-}
\ No newline at end of file
+}
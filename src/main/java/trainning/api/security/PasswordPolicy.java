@@ -0,0 +1,13 @@
+package trainning.api.security;
+
+import trainning.api.exception.InvalidPasswordException;
+
+/**
+ * A rule a new password must satisfy. All policy beans are applied in order to every password being set.
+ */
+public interface PasswordPolicy {
+    /**
+     * @throws InvalidPasswordException if the password does not satisfy the policy
+     */
+    void validate(String password);
+}
@@ -1,14 +1,93 @@
 package trainning.api.security;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+@Slf4j
 @Configuration
 public class SecurityBeanConfig {
+    private static final int MAX_BCRYPT_STRENGTH = 31;
+
+    @Value("${password.hashing.threads:0}")
+    private int hashingThreads; // 0 means one thread per available core
+    @Value("${password.hashing.queue-capacity:64}")
+    private int hashingQueueCapacity;
+    @Value("${password.hashing.retry-after:1}")
+    private long hashingRetryAfterSeconds;
+    @Value("${password.hashing.strength:10}")
+    private int hashingStrength;
+    @Value("${password.hashing.target-ms:0}")
+    private long hashingTargetMs; // 0 disables calibration and uses the fixed strength
+    @Value("${password.hashing.max-strength:16}")
+    private int hashingMaxStrength;
+    @Value("${password.policy.min-length:10}")
+    private int policyMinLength;
+    @Value("${password.policy.special-characters:!@#$%^&*()_+=-}")
+    private String policySpecialCharacters;
+    @Value("${password.breached.corpus:}")
+    private String breachedCorpusPath;
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder() {
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        int strength = hashingTargetMs > 0 ? calibrateStrength() : hashingStrength;
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), threads, hashingQueueCapacity, hashingRetryAfterSeconds);
+    }
+
+    @Bean
+    @Order(0)
+    public PasswordPolicy characterClassPasswordPolicy() {
+        return new CharacterClassPasswordPolicy(policyMinLength, policySpecialCharacters);
+    }
+
+    /**
+     * Checked after the cheaper policies, only when a corpus file is configured.
+     */
+    @Bean(destroyMethod = "close")
+    @Order(1)
+    @ConditionalOnProperty("password.breached.corpus")
+    public PasswordPolicy breachedPasswordPolicy() {
+        try {
+            BreachedPasswordCorpus corpus = BreachedPasswordCorpus.open(Path.of(breachedCorpusPath));
+            log.info("Loaded breached password corpus {} ({} entries)", breachedCorpusPath, corpus.size());
+            return new BreachedPasswordPolicy(corpus);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open breached password corpus " + breachedCorpusPath, e);
+        }
+    }
+
+    /**
+     * Picks the highest BCrypt strength whose hashing time on this machine stays within the configured target,
+     * starting from the configured strength as a lower bound.
+     */
+    private int calibrateStrength() {
+        int strength = hashingStrength;
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(strength);
+        probe.encode("calibration"); // Warm-up
+
+        long start = System.nanoTime();
+        probe.encode("calibration");
+        double elapsedMs = (System.nanoTime() - start) / 1_000_000.0;
+
+        // Each additional BCrypt round doubles the hashing cost
+        int maxStrength = Math.min(hashingMaxStrength, MAX_BCRYPT_STRENGTH);
+        while (strength < maxStrength && elapsedMs * 2 <= hashingTargetMs) {
+            strength++;
+            elapsedMs *= 2;
+        }
+
+        log.info("Password hashing calibrated to BCrypt strength {} (~{} ms per hash, target {} ms)",
+                strength, Math.round(elapsedMs), hashingTargetMs);
+        return strength;
     }
 }
@@ -0,0 +1,100 @@
+package trainning.api.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * Optional cache of already verified bearer tokens, so repeated requests with the same token skip decoding and
+ * signature verification. Entries are keyed by a SHA-256 digest of the token (raw tokens are never retained) and
+ * never outlive the token's own expiration.
+ */
+@Component
+public class TokenAuthenticationCache implements MeterBinder {
+    @Value("${jwt.cache.enabled:false}")
+    private boolean enabled;
+    @Value("${jwt.cache.max-size:10000}")
+    private long maxSize;
+    @Value("${jwt.cache.ttl:300000}")
+    private long ttlMs;
+
+    private Cache<String, Entry> cache;
+
+    private record Entry(Authentication authentication, long expiresAtMs) {}
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.<String, Entry>creating((key, entry) -> Duration.ofMillis(
+                        Math.max(0, Math.min(ttlMs, entry.expiresAtMs() - System.currentTimeMillis()))
+                )))
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cache != null) {
+            CaffeineCacheMetrics.monitor(registry, cache, "jwt.token");
+        }
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * @return the cached authentication for this token, or null if absent, expired or the cache is disabled
+     */
+    public Authentication get(String token) {
+        if (cache == null) {
+            return null;
+        }
+        Entry entry = cache.getIfPresent(digest(token));
+        // Expiry is enforced lazily by the cache, so double-check against the token's own exp
+        if (entry == null || entry.expiresAtMs() <= System.currentTimeMillis()) {
+            return null;
+        }
+        return entry.authentication();
+    }
+
+    public void put(String token, Authentication authentication, long expiresAtMs) {
+        if (cache != null) {
+            cache.put(digest(token), new Entry(authentication, expiresAtMs));
+        }
+    }
+
+    /**
+     * @return hit, miss and eviction counters, or empty stats if the cache is disabled
+     */
+    public CacheStats getStats() {
+        return cache == null ? CacheStats.empty() : cache.stats();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e); // Mandatory in every JRE
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package trainning.api.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, in its single-counter form (GCRA): the state is the time at which the bucket will be full
+ * again, so taking a token is one compare-and-set.
+ */
+class TokenBucket {
+    private final long intervalNanos; // Time to refill one token
+    private final long burstNanos; // Time to refill the whole bucket
+    private final AtomicLong fullAtNanos;
+
+    TokenBucket(long capacity, long intervalNanos, long nowNanos) {
+        this.intervalNanos = intervalNanos;
+        this.burstNanos = capacity * intervalNanos;
+        this.fullAtNanos = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes a token if there is one.
+     *
+     * @return 0 if a token was taken, otherwise the time until one is available, in nanoseconds
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long fullAt = fullAtNanos.get();
+            long next = Math.max(fullAt, nowNanos) + intervalNanos;
+            long wait = next - nowNanos - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAtNanos.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package trainning.api.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user token epochs: counters bumped when a user is deleted or its roles or password change. A token carries the
+ * epoch of its user when it was minted, and is revoked once that epoch has been bumped, so revocation never compares
+ * the clocks of the instances minting and checking tokens.
+ * <p>
+ * Epochs are kept in memory so that checking a token needs no database query. Other instances' bumps are picked up by
+ * an incremental refresh every {@code jwt.revocation.refresh-interval} ms, based on the database clock. An epoch is
+ * dropped from memory once every token minted before it has expired.
+ */
+@Slf4j
+@Component
+public class TokenRevocationRegistry {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpirationMs;
+    @Value("${jwt.revocation.late-commit-window:60000}")
+    private long lateCommitWindowMs; // Re-read window covering transactions committed after a refresh passed their revoked_at
+
+    private final Map<Long, Epoch> epochs = new ConcurrentHashMap<>();
+    private volatile OffsetDateTime lastRefresh; // Database time of the last refresh, null until the first one
+
+    private record Epoch(long value, long learnedAtNanos) {}
+
+    public boolean isRevoked(long userId, long tokenEpoch) {
+        Epoch epoch = epochs.get(userId);
+        return epoch != null && tokenEpoch < epoch.value();
+    }
+
+    /**
+     * The epoch to embed in a new token of the user. Read outside of any read-only transaction, hence on the primary.
+     */
+    public long currentEpoch(long userId) {
+        List<Long> epoch = jdbcTemplate.queryForList("SELECT epoch FROM api_token_epoch WHERE api_user_id = ?", Long.class, userId);
+        return epoch.isEmpty() ? 0 : epoch.get(0);
+    }
+
+    /**
+     * Revokes all tokens of the user minted until now. Must be called within the transaction changing the user; the
+     * revocation applies locally once it commits.
+     */
+    public void revoke(long userId) {
+        revokeAll(List.of(userId));
+    }
+
+    /**
+     * Revokes all tokens of the users minted until now, with a few statements whatever their number. Must be called
+     * within the transaction changing the users.
+     */
+    public void revokeAll(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> bumped = bump(userIds);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumped.forEach(TokenRevocationRegistry.this::apply);
+                }
+            });
+        } else {
+            bumped.forEach(this::apply);
+        }
+    }
+
+    private Map<Long, Long> bump(Collection<Long> userIds) {
+        NamedParameterJdbcTemplate namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+
+        Map<Long, Long> bumped = new HashMap<>();
+        Collection<Long> pending = userIds;
+        while (true) {
+            Map<String, Object> ids = Map.of("ids", pending);
+            namedJdbcTemplate.update("UPDATE api_token_epoch SET epoch = epoch + 1, revoked_at = CURRENT_TIMESTAMP WHERE api_user_id IN (:ids)", ids);
+            namedJdbcTemplate.query("SELECT api_user_id, epoch FROM api_token_epoch WHERE api_user_id IN (:ids)", ids,
+                    (RowCallbackHandler) rs -> bumped.put(rs.getLong(1), rs.getLong(2)));
+
+            List<Long> firstRevocations = pending.stream().filter(userId -> !bumped.containsKey(userId)).distinct().toList();
+            if (firstRevocations.isEmpty()) {
+                return bumped;
+            }
+            try {
+                insertFirstRevocations(firstRevocations);
+                firstRevocations.forEach(userId -> bumped.put(userId, 1L));
+                return bumped;
+            } catch (DuplicateKeyException e) { // Inserted by a concurrent first revocation, which committed meanwhile
+                pending = firstRevocations;
+            }
+        }
+    }
+
+    /**
+     * Inserts the epochs of users never revoked before, within a savepoint so that the transaction changing the users
+     * survives a duplicate key.
+     */
+    private void insertFirstRevocations(List<Long> userIds) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            Savepoint savepoint = connection.getAutoCommit() ? null : connection.setSavepoint();
+            try (PreparedStatement statement = connection.prepareStatement("INSERT INTO api_token_epoch (api_user_id, epoch, revoked_at) VALUES (?, 1, CURRENT_TIMESTAMP)")) {
+                for (long userId : userIds) {
+                    statement.setLong(1, userId);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            } catch (SQLException e) {
+                if (savepoint != null) {
+                    connection.rollback(savepoint);
+                }
+                throw e;
+            }
+            if (savepoint != null) {
+                connection.releaseSavepoint(savepoint);
+            }
+            return null;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval:5000}")
+    public void refresh() {
+        long expiredBefore = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(jwtExpirationMs);
+        epochs.values().removeIf(epoch -> epoch.learnedAtNanos() - expiredBefore < 0); // Tokens minted before it expired
+
+        OffsetDateTime now = jdbcTemplate.queryForObject("SELECT CURRENT_TIMESTAMP", OffsetDateTime.class);
+        OffsetDateTime since = lastRefresh == null
+                ? now.minusNanos(TimeUnit.MILLISECONDS.toNanos(jwtExpirationMs))
+                : lastRefresh.minusNanos(TimeUnit.MILLISECONDS.toNanos(lateCommitWindowMs));
+        jdbcTemplate.query("SELECT api_user_id, epoch FROM api_token_epoch WHERE revoked_at > ?",
+                (RowCallbackHandler) rs -> apply(rs.getLong(1), rs.getLong(2)), since);
+        lastRefresh = now;
+    }
+
+    private void apply(long userId, long epoch) {
+        epochs.merge(userId, new Epoch(epoch, System.nanoTime()),
+                (known, bumped) -> bumped.value() > known.value() ? bumped : known);
+    }
+}
@@ -22,18 +22,22 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @Configuration
 public class WebSecurityConfig {
     private final JwtUtil jwtUtil;
+    private final TokenAuthenticationCache tokenCache;
+    private final TokenRevocationRegistry tokenRevocations;
     private final Environment env;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http.authorizeHttpRequests(auth -> auth
                 .requestMatchers("/ping").permitAll()
-                .requestMatchers("/v1/auth").permitAll()
+                .requestMatchers("/.well-known/jwks.json").permitAll()
+                .requestMatchers("/v1/auth", "/v1/auth/refresh").permitAll()
                 .requestMatchers("/swagger-ui/*").permitAll()
                 .requestMatchers("/v3/api-docs").permitAll()
                 .requestMatchers("/v3/api-docs/*").permitAll()
+                .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                 .anyRequest().authenticated())
-        .addFilterBefore(new JwtAuthenticationFilter(jwtUtil), UsernamePasswordAuthenticationFilter.class)
+        .addFilterBefore(new JwtAuthenticationFilter(jwtUtil, tokenCache, tokenRevocations), UsernamePasswordAuthenticationFilter.class)
         .exceptionHandling(
             exceptionHandling -> exceptionHandling
                     .authenticationEntryPoint(unauthorizedEntryPoint())
@@ -41,7 +45,10 @@ public class WebSecurityConfig {
         );
 
         if (isProdProfile()) {
-            http.redirectToHttps(httpSecurityHttpsRedirectConfigurer -> {});
+            // The chain also runs on the plain HTTP management port, which has no HTTPS port to redirect to
+            int managementPort = env.getProperty("management.server.port", Integer.class, -1);
+            http.redirectToHttps(httpSecurityHttpsRedirectConfigurer -> httpSecurityHttpsRedirectConfigurer
+                    .requestMatchers(request -> request.getLocalPort() != managementPort));
         }
 
         return http.build();
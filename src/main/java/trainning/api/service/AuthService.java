@@ -3,11 +3,17 @@ package trainning.api.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import trainning.api.cache.UserMembershipFilter;
 import trainning.api.exception.InvalidCredentialsException;
+import trainning.api.exception.InvalidRefreshTokenException;
 import trainning.api.exception.UserNotFoundException;
 import trainning.api.model.UserModel;
 import trainning.api.repository.UserRepository;
 import trainning.api.security.JwtUtil;
+import trainning.api.security.TokenRevocationRegistry;
+
+import java.util.Optional;
 
 @Service
 public class AuthService {
@@ -17,14 +23,58 @@ public class AuthService {
     private PasswordEncoder passwordEncoder;
     @Autowired
     private JwtUtil jwtUtil;
+    @Autowired
+    private UserMembershipFilter userMembershipFilter;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private TokenRevocationRegistry tokenRevocations;
 
     public String login(Long id, String rawPassword) {
-        UserModel user = userRepository.findById(id)
+        if (!userMembershipFilter.mightContainId(id)) {
+            throw new UserNotFoundException("User with ID " + id + " not found");
+        }
+        // Read before the password is checked, so that a token matched against a password changed meanwhile is revoked
+        long epoch = tokenRevocations.currentEpoch(id);
+        UserModel user = userRepository.findById(id) // Read-only, so served by the replica if there is one
                 .orElseThrow(() -> new UserNotFoundException("User with ID " + id + " not found"));
-        if (passwordEncoder.matches(rawPassword, user.getPassword())) {
-            return jwtUtil.generateToken(id, user.getRoles());
-        } else {
-            throw new InvalidCredentialsException("Invalid password for user " + id);
+        if (!passwordEncoder.matches(rawPassword, user.getPassword())) {
+            user = findChangedPassword(user)
+                    .filter(latest -> passwordEncoder.matches(rawPassword, latest.getPassword()))
+                    .orElseThrow(() -> new InvalidCredentialsException("Invalid password for user " + id));
+        }
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) { // Hashed with outdated parameters
+            String oldPassword = user.getPassword();
+            String newPassword = passwordEncoder.encode(rawPassword);
+            // Not merged, as the user may come from a lagging replica: skipped if the password changed meanwhile
+            transactionTemplate.executeWithoutResult(status -> userRepository.updatePassword(id, oldPassword, newPassword));
         }
+        return jwtUtil.generateToken(id, user.getRoles(), epoch);
+    }
+
+    public String issueRefreshToken(long id) {
+        return refreshTokenService.issue(id);
+    }
+
+    /**
+     * Renews both tokens without checking the password again: the new access token carries the user's current roles.
+     */
+    public AuthTokens refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        long epoch = tokenRevocations.currentEpoch(rotation.userId()); // Before the roles are read
+        UserModel user = transactionTemplate.execute(status -> userRepository.findById(rotation.userId()))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token")); // Deleted meanwhile
+        return new AuthTokens(jwtUtil.generateToken(user.getId(), user.getRoles(), epoch), rotation.refreshToken());
+    }
+
+    /**
+     * Re-reads the user in a read-write transaction, hence on the primary, in case a replica did not have its latest
+     * password yet.
+     */
+    private Optional<UserModel> findChangedPassword(UserModel user) {
+        return transactionTemplate.execute(status -> userRepository.findById(user.getId()))
+                .filter(latest -> !latest.getPassword().equals(user.getPassword()));
     }
 }
@@ -0,0 +1,7 @@
+package trainning.api.service;
+
+/**
+ * A short-lived access token along with the refresh token to renew it.
+ */
+public record AuthTokens(String accessToken, String refreshToken) {
+}
@@ -0,0 +1,16 @@
+package trainning.api.service;
+
+import trainning.api.model.UserModel;
+
+/**
+ * Outcome of one item of {@link UserService#registerUsers}: either the created user or the failure reason.
+ */
+public record BatchRegistrationResult(String username, UserModel user, String error) {
+    static BatchRegistrationResult created(UserModel user) {
+        return new BatchRegistrationResult(user.getUsername(), user, null);
+    }
+
+    static BatchRegistrationResult failed(String username, String error) {
+        return new BatchRegistrationResult(username, null, error);
+    }
+}
@@ -0,0 +1,144 @@
+package trainning.api.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import trainning.api.exception.InvalidRefreshTokenException;
+import trainning.api.model.RefreshTokenModel;
+import trainning.api.repository.RefreshTokenRepository;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opaque, rotating refresh tokens of the form {@code <id>.<secret>}. The secret has 256 bits of entropy, so a single
+ * SHA-256 is enough to store it: renewing a token costs a primary key lookup instead of a bcrypt match.
+ * <p>
+ * Each token can be used once; presenting it again means it leaked, and revokes every token rotated from the same
+ * login.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+    private static final int SECRET_BYTES = 32;
+    private static final String ROTATED = "rotated";
+    private static final String INVALID = "invalid";
+    private static final String REUSED = "reused";
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.refresh.expiration:1209600000}")
+    private long refreshExpirationMs;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    private final Base64.Decoder decoder = Base64.getUrlDecoder();
+    private final Map<String, Counter> outcomes = new HashMap<>();
+
+    public record Rotation(long userId, String refreshToken) {}
+
+    @PostConstruct
+    public void init() {
+        for (String outcome : List.of(ROTATED, INVALID, REUSED)) {
+            outcomes.put(outcome, Counter.builder("jwt.refresh")
+                    .description("Refresh token renewals")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Issues the first token of a new family.
+     */
+    @Transactional
+    public String issue(long userId) {
+        return save(random.nextLong(), userId, System.currentTimeMillis() + refreshExpirationMs);
+    }
+
+    /**
+     * Exchanges the token for a new one of the same family, expiring at the same time.
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class) // Keep the family revocation
+    public Rotation rotate(String refreshToken) {
+        RefreshTokenModel token = find(refreshToken);
+        if (refreshTokenRepository.markUsed(token.getId()) == 0) {
+            refreshTokenRepository.deleteFamily(token.getFamilyId());
+            outcomes.get(REUSED).increment();
+            log.warn("Refresh token {} of user {} was reused, revoking its family", token.getId(), token.getUserId());
+            throw new InvalidRefreshTokenException("Invalid refresh token");
+        }
+        outcomes.get(ROTATED).increment();
+        return new Rotation(token.getUserId(), save(token.getFamilyId(), token.getUserId(), token.getExpiresAt()));
+    }
+
+    /**
+     * Revokes every refresh token of the user. Must be called within the transaction changing the user.
+     */
+    public void revokeAll(long userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+    }
+
+    /**
+     * Revokes every refresh token of the users. Must be called within the transaction changing the users.
+     */
+    public void revokeAll(Collection<Long> userIds) {
+        refreshTokenRepository.deleteByUserIds(userIds);
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${jwt.refresh.purge-interval:3600000}")
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpired(System.currentTimeMillis());
+        log.debug("Purged {} expired refresh tokens", purged);
+    }
+
+    private RefreshTokenModel find(String refreshToken) {
+        int separator = refreshToken == null ? -1 : refreshToken.indexOf('.');
+        try {
+            if (separator > 0) {
+                long id = Long.parseLong(refreshToken, 0, separator, 10);
+                byte[] hash = hash(decoder.decode(refreshToken.substring(separator + 1)));
+                RefreshTokenModel token = refreshTokenRepository.findById(id).orElse(null);
+                if (token != null && MessageDigest.isEqual(hash, token.getTokenHash())
+                        && token.getExpiresAt() > System.currentTimeMillis()) {
+                    return token;
+                }
+            }
+        } catch (IllegalArgumentException e) { // Also thrown for a malformed ID
+            log.debug("Malformed refresh token: {}", e.getMessage());
+        }
+        outcomes.get(INVALID).increment();
+        throw new InvalidRefreshTokenException("Invalid refresh token");
+    }
+
+    private String save(long familyId, long userId, long expiresAt) {
+        byte[] secret = new byte[SECRET_BYTES];
+        random.nextBytes(secret);
+        RefreshTokenModel token = refreshTokenRepository.save(
+                new RefreshTokenModel(familyId, userId, hash(secret), expiresAt));
+        return token.getId() + "." + encoder.encodeToString(secret);
+    }
+
+    private static byte[] hash(byte[] secret) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(secret);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // Every JVM supports SHA-256
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package trainning.api.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Streams the whole user directory as NDJSON (one user with its roles per line) from a forward-only JDBC cursor,
+ * so memory use does not depend on the number of users.
+ */
+@Service
+public class UserExportService {
+    private static final String EXPORT_QUERY = """
+            SELECT u.id, u.username, r.name
+            FROM api_user u
+            LEFT JOIN api_user_role ur ON ur.api_user_id = u.id
+            LEFT JOIN api_role r ON r.id = ur.api_role_id
+            ORDER BY u.id""";
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${user.export.fetch-size:1000}")
+    private int fetchSize;
+    @Value("${user.export.flush-every:1000}")
+    private int flushEvery;
+
+    public void exportUsers(OutputStream outputStream) throws IOException {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true); // Required by the Postgres driver to use a cursor instead of loading all rows
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null); // Lines are separated by endUser, not by the default " "
+            transaction.executeWithoutResult(status -> jdbcTemplate.query(EXPORT_QUERY, resultSet -> {
+                writeUsers(resultSet, generator);
+                return null;
+            }));
+            generator.flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeUsers(ResultSet resultSet, JsonGenerator generator) throws SQLException {
+        try {
+            long currentId = 0;
+            boolean open = false;
+            long written = 0;
+            while (resultSet.next()) {
+                long id = resultSet.getLong(1);
+                if (!open || id != currentId) {
+                    if (open) {
+                        endUser(generator);
+                        if (++written % flushEvery == 0) {
+                            generator.flush();
+                        }
+                    }
+                    generator.writeStartObject();
+                    generator.writeNumberField("id", id);
+                    generator.writeStringField("username", resultSet.getString(2));
+                    generator.writeArrayFieldStart("roles");
+                    currentId = id;
+                    open = true;
+                }
+                String role = resultSet.getString(3);
+                if (role != null) {
+                    generator.writeStartObject();
+                    generator.writeStringField("name", role);
+                    generator.writeEndObject();
+                }
+            }
+            if (open) {
+                endUser(generator);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void endUser(JsonGenerator generator) throws IOException {
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
@@ -0,0 +1,271 @@
+package trainning.api.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import trainning.api.cache.RoleCatalog;
+import trainning.api.exception.*;
+import trainning.api.model.*;
+import trainning.api.repository.UserJobRepository;
+import trainning.api.security.TokenRevocationRegistry;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Role changes and deletions over a list of user IDs or over every user having a role, run in the background on a
+ * small dedicated pool: requests only validate the job and enqueue it. Users are processed by ascending ID in chunks,
+ * each one a single transaction of a few set-based statements, so the cost per user does not involve loading entities.
+ * <p>
+ * The guards of the single-user endpoints apply: users with the ADMIN role are skipped and ADMIN cannot be given.
+ * Changed users get a new version and their tokens are revoked; deleted users also lose their refresh tokens. The
+ * statements bypass Hibernate, so the users' second-level cache entries are evicted once each chunk has committed.
+ * Deleted users stay in the membership filter, as with single deletions.
+ */
+@Slf4j
+@Service
+public class UserJobService {
+    private static final String ELIGIBLE_QUERY = """
+            SELECT u.id FROM api_user u
+            WHERE u.id IN (:ids) AND NOT EXISTS (
+                SELECT 1 FROM api_user_role ur JOIN api_role r ON r.id = ur.api_role_id
+                WHERE ur.api_user_id = u.id AND r.name = :admin)""";
+    private static final String WITH_ROLE_QUERY = """
+            SELECT ur.api_user_id FROM api_user_role ur JOIN api_role r ON r.id = ur.api_role_id
+            WHERE r.name = :role AND ur.api_user_id > :after
+            ORDER BY ur.api_user_id
+            LIMIT :limit""";
+    private static final String COUNT_WITH_ROLE_QUERY = """
+            SELECT count(*) FROM api_user_role ur JOIN api_role r ON r.id = ur.api_role_id
+            WHERE r.name = :role""";
+    private static final String ASSIGN_ROLES_QUERY = """
+            INSERT INTO api_user_role (api_role_id, api_user_id)
+            SELECT r.id, u.id FROM api_user u CROSS JOIN api_role r
+            WHERE u.id IN (:ids) AND r.name IN (:roles)""";
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    @Autowired
+    private UserJobRepository userJobRepository;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private RoleCatalog roleCatalog;
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private TokenRevocationRegistry tokenRevocations;
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${id.node-id:0}")
+    private long nodeId;
+    @Value("${user.jobs.max-ids:100000}")
+    private int maxIds;
+    @Value("${user.jobs.chunk-size:1000}")
+    private int chunkSize;
+    @Value("${user.jobs.threads:1}")
+    private int threads;
+    @Value("${user.jobs.queue-capacity:16}")
+    private int queueCapacity;
+    @Value("${user.jobs.retry-after:10}")
+    private long retryAfterSeconds;
+    @Value("${user.jobs.retention:604800000}")
+    private long retentionMs;
+
+    private ThreadPoolExecutor executor;
+    private final Map<UserJobOperation, Timer> chunkTimers = new EnumMap<>(UserJobOperation.class);
+
+    /**
+     * Users targeted by a job: either the given IDs, sorted, or the users having the role.
+     */
+    private record Selection(long[] ids, String role) {}
+
+    private record Chunk(List<Long> selected, List<Long> changed) {}
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        for (UserJobOperation operation : UserJobOperation.values()) {
+            chunkTimers.put(operation, Timer.builder("user.jobs.chunk")
+                    .description("Duration of one chunk of a user job, in its own transaction")
+                    .tag("operation", operation.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Fails the jobs this instance was running when it stopped: their completed chunks stay committed.
+     */
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        int failed = userJobRepository.failUnfinished(nodeId, "Interrupted by a restart", System.currentTimeMillis());
+        if (failed > 0) {
+            log.warn("Marked {} interrupted user jobs as failed", failed);
+        }
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${user.jobs.purge-interval:3600000}")
+    public void purgeFinished() {
+        int purged = userJobRepository.deleteFinishedBefore(System.currentTimeMillis() - retentionMs);
+        log.debug("Purged {} finished user jobs", purged);
+    }
+
+    /**
+     * Replaces the roles of the selected users.
+     */
+    public UserJobModel setRoles(Collection<Long> userIds, String role, Set<String> roles) {
+        Selection selection = select(userIds, role);
+        List<String> roleNames = userService.validateAssignedRoles(roles).stream().map(RoleModel::getName).toList();
+        return submit(UserJobOperation.SET_ROLES, selection, roleNames);
+    }
+
+    public UserJobModel deleteUsers(Collection<Long> userIds, String role) {
+        return submit(UserJobOperation.DELETE, select(userIds, role), List.of());
+    }
+
+    @Transactional(readOnly = true)
+    public UserJobModel getJob(long id) {
+        return userJobRepository.findById(id).orElseThrow(() -> new UserJobNotFoundException("Job with ID " + id + " not found"));
+    }
+
+    private Selection select(Collection<Long> userIds, String role) {
+        boolean byIds = userIds != null && !userIds.isEmpty();
+        if (byIds == (role != null)) {
+            throw new InvalidUserJobException("Either user IDs or a role must be given");
+        }
+        if (!byIds) {
+            roleCatalog.findByName(role).orElseThrow(() -> new InvalidRoleException("Role does not exists: " + role));
+            return new Selection(null, role);
+        }
+        if (userIds.size() > maxIds) {
+            throw new BatchTooLargeException("A job cannot target more than " + maxIds + " user IDs, select them by role instead");
+        }
+        return new Selection(userIds.stream().filter(Objects::nonNull).mapToLong(Long::longValue).sorted().distinct().toArray(), null);
+    }
+
+    private UserJobModel submit(UserJobOperation operation, Selection selection, List<String> roleNames) {
+        long total = selection.ids() != null
+                ? selection.ids().length
+                : jdbcTemplate.queryForObject(COUNT_WITH_ROLE_QUERY, Map.of("role", selection.role()), Long.class);
+        long requestedBy = Long.parseLong(SecurityContextHolder.getContext().getAuthentication().getPrincipal().toString());
+        UserJobModel job = userJobRepository.save(new UserJobModel(operation, nodeId, requestedBy, total));
+        try {
+            executor.execute(() -> run(job.getId(), operation, selection, roleNames));
+        } catch (RejectedExecutionException e) {
+            userJobRepository.delete(job);
+            throw new ServerBusyException("Too many user jobs queued, retry after the given delay", retryAfterSeconds);
+        }
+        return job;
+    }
+
+    private void run(long jobId, UserJobOperation operation, Selection selection, List<String> roleNames) {
+        transactionTemplate.executeWithoutResult(status -> userJobRepository.updateStatus(jobId, UserJobStatus.RUNNING));
+        try {
+            int position = 0;
+            long after = 0;
+            while (true) {
+                int from = position;
+                long fromId = after;
+                Timer.Sample sample = Timer.start(meterRegistry);
+                Chunk chunk = transactionTemplate.execute(status -> processChunk(jobId, operation, selection, from, fromId, roleNames));
+                sample.stop(chunkTimers.get(operation));
+                if (chunk.selected().isEmpty()) {
+                    break;
+                }
+                evict(chunk.changed(), operation == UserJobOperation.DELETE);
+                position += chunk.selected().size();
+                after = chunk.selected().get(chunk.selected().size() - 1);
+            }
+            finish(jobId, UserJobStatus.SUCCEEDED, null);
+        } catch (RuntimeException e) {
+            log.error("User job {} failed", jobId, e);
+            String error = String.valueOf(e.getMessage());
+            finish(jobId, UserJobStatus.FAILED, error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        }
+    }
+
+    private Chunk processChunk(long jobId, UserJobOperation operation, Selection selection, int position, long after,
+                               List<String> roleNames) {
+        List<Long> selected = selection.ids() != null
+                ? Arrays.stream(selection.ids(), position, Math.min(position + chunkSize, selection.ids().length)).boxed().toList()
+                : jdbcTemplate.queryForList(WITH_ROLE_QUERY, Map.of("role", selection.role(), "after", after, "limit", chunkSize), Long.class);
+        if (selected.isEmpty()) {
+            return new Chunk(selected, selected);
+        }
+
+        List<Long> changed = jdbcTemplate.queryForList(ELIGIBLE_QUERY,
+                Map.of("ids", selected, "admin", Role.ADMIN.getName()), Long.class);
+        if (!changed.isEmpty()) {
+            Map<String, Object> ids = Map.of("ids", changed);
+            if (operation == UserJobOperation.SET_ROLES) {
+                // Bumping the version first locks the users against concurrent single-user changes
+                jdbcTemplate.update("UPDATE api_user SET version = version + 1 WHERE id IN (:ids)", ids);
+                jdbcTemplate.update("DELETE FROM api_user_role WHERE api_user_id IN (:ids)", ids);
+                jdbcTemplate.update(ASSIGN_ROLES_QUERY, Map.of("ids", changed, "roles", roleNames));
+            } else {
+                jdbcTemplate.update("DELETE FROM api_user_role WHERE api_user_id IN (:ids)", ids);
+                jdbcTemplate.update("DELETE FROM api_user WHERE id IN (:ids)", ids);
+                refreshTokenService.revokeAll(changed);
+            }
+            tokenRevocations.revokeAll(changed);
+        }
+        userJobRepository.addProgress(jobId, selected.size(), changed.size());
+        return new Chunk(selected, changed);
+    }
+
+    private void evict(List<Long> userIds, boolean deleted) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        for (Long userId : userIds) {
+            cache.evictEntityData(UserModel.class, userId);
+            cache.evictCollectionData(UserModel.class.getName() + ".roles", userId);
+        }
+        if (deleted && !userIds.isEmpty()) {
+            cache.evictQueryRegions(); // Cached lookups by username may still return deleted users
+        }
+    }
+
+    private void finish(long jobId, UserJobStatus status, String error) {
+        transactionTemplate.executeWithoutResult(transaction ->
+                userJobRepository.finish(jobId, status, error, System.currentTimeMillis()));
+    }
+}
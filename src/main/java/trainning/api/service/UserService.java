@@ -1,35 +1,143 @@
 package trainning.api.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import trainning.api.cache.RoleCatalog;
+import trainning.api.cache.UserMembershipFilter;
+import trainning.api.dto.CreateUserDto;
+import trainning.api.dto.UserDto;
 import trainning.api.exception.*;
 import trainning.api.model.Role;
 import trainning.api.model.RoleModel;
 import trainning.api.model.UserModel;
-import trainning.api.repository.RoleRepository;
 import trainning.api.repository.UserRepository;
+import trainning.api.repository.UserRoleName;
+import trainning.api.repository.UserSummary;
+import trainning.api.repository.UserWithRoleName;
+import trainning.api.security.BoundedPasswordEncoder;
+import trainning.api.security.PasswordPolicy;
+import trainning.api.security.TokenRevocationRegistry;
 
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 @Service
 public class UserService {
     @Autowired
     private UserRepository userRepository;
     @Autowired
-    private RoleRepository roleRepository;
+    private RoleCatalog roleCatalog;
     @Autowired
     private PasswordEncoder passwordEncoder;
+    @Autowired
+    private UserMembershipFilter userMembershipFilter;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private List<PasswordPolicy> passwordPolicies;
+    @Autowired
+    private TokenRevocationRegistry tokenRevocations;
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Value("${user.batch.max-size:10000}")
+    private int batchMaxSize;
+    @Value("${user.batch.chunk-size:500}")
+    private int batchChunkSize;
 
     public UserModel registerUser(String username, String rawPassword, Set<String> roles) {
-        if (userRepository.findByUsername(username) != null) {
+        if (userMembershipFilter.mightContainUsername(username) && userRepository.findByUsername(username) != null) {
             throw new UserAlreadyExistsException("Username already taken: " + username);
         }
 
+        List<RoleModel> userRoles = validateNewUser(rawPassword, roles);
+
+        return userRepository.save(newUser(username, passwordEncoder.encode(rawPassword), userRoles));
+    }
+
+    /**
+     * Registers many users at once: everything is validated up front, passwords are hashed in parallel and inserts
+     * are batched, one transaction per chunk. Failures are reported per item instead of aborting the whole batch.
+     */
+    public List<BatchRegistrationResult> registerUsers(List<CreateUserDto> users) {
+        if (users.size() > batchMaxSize) {
+            throw new BatchTooLargeException("A batch cannot contain more than " + batchMaxSize + " users");
+        }
+
+        BatchRegistrationResult[] results = new BatchRegistrationResult[users.size()];
+        Set<String> takenUsernames = findTakenUsernames(users);
+
+        List<Integer> validIndexes = new ArrayList<>();
+        List<List<RoleModel>> validRoles = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            CreateUserDto user = users.get(i);
+            if (user == null || user.getUsername() == null) {
+                results[i] = BatchRegistrationResult.failed(null, "Username must not be null");
+                continue;
+            }
+            if (takenUsernames.contains(user.getUsername())) { // Also catches duplicates within the batch
+                results[i] = BatchRegistrationResult.failed(user.getUsername(), "Username already taken: " + user.getUsername());
+                continue;
+            }
+            try {
+                validRoles.add(validateNewUser(user.getPassword(), user.getRoles()));
+                validIndexes.add(i);
+                takenUsernames.add(user.getUsername()); // Only a valid item reserves its username
+            } catch (InvalidRoleException | AdminRoleException | InvalidPasswordException e) {
+                results[i] = BatchRegistrationResult.failed(user.getUsername(), e.getMessage());
+            }
+        }
+
+        List<String> rawPasswords = validIndexes.stream().map(i -> users.get(i).getPassword()).toList();
+        List<String> hashes = passwordEncoder instanceof BoundedPasswordEncoder boundedPasswordEncoder
+                ? boundedPasswordEncoder.encodeAll(rawPasswords)
+                : rawPasswords.stream().map(passwordEncoder::encode).toList();
+
+        for (int start = 0; start < validIndexes.size(); start += batchChunkSize) {
+            int end = Math.min(start + batchChunkSize, validIndexes.size());
+            List<UserModel> chunk = new ArrayList<>(end - start);
+            for (int j = start; j < end; j++) {
+                chunk.add(newUser(users.get(validIndexes.get(j)).getUsername(), hashes.get(j), validRoles.get(j)));
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> userRepository.saveAll(chunk));
+                for (int j = start; j < end; j++) {
+                    results[validIndexes.get(j)] = BatchRegistrationResult.created(chunk.get(j - start));
+                }
+            } catch (DataAccessException e) { // e.g. a username registered concurrently
+                for (int j = start; j < end; j++) {
+                    results[validIndexes.get(j)] = BatchRegistrationResult.failed(chunk.get(j - start).getUsername(), "Could not save user: " + e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private Set<String> findTakenUsernames(List<CreateUserDto> users) {
+        List<String> candidates = users.stream()
+                .filter(user -> user != null && user.getUsername() != null)
+                .map(CreateUserDto::getUsername)
+                .filter(userMembershipFilter::mightContainUsername)
+                .distinct()
+                .toList();
+
+        Set<String> taken = new HashSet<>();
+        for (int start = 0; start < candidates.size(); start += batchChunkSize) {
+            taken.addAll(userRepository.findExistingUsernames(candidates.subList(start, Math.min(start + batchChunkSize, candidates.size()))));
+        }
+        return taken;
+    }
+
+    private List<RoleModel> validateNewUser(String rawPassword, Set<String> roles) {
         if (roles == null || roles.isEmpty()) {
             throw new InvalidRoleException("At least one role must be provided");
         }
@@ -40,37 +148,117 @@ public class UserService {
 
         List<RoleModel> userRoles = convertToRoleModel(roles);
 
+        validatePassword(rawPassword);
+
+        return userRoles;
+    }
+
+    private UserModel newUser(String username, String hashedPassword, List<RoleModel> roles) {
         UserModel user = new UserModel();
         user.setUsername(username);
+        user.setPassword(hashedPassword);
 
-        validatePassword(rawPassword);
-        user.setPassword(passwordEncoder.encode(rawPassword));
-
-        for(RoleModel role : userRoles) {
+        for(RoleModel role : roles) {
             user.addRole(role);
         }
 
-        return userRepository.save(user);
+        return user;
+    }
+
+    /**
+     * Reads the user and its role names with a single projection query, without loading the entity.
+     */
+    @Transactional(readOnly = true)
+    public UserDto getUser(long id) {
+        if (!userMembershipFilter.mightContainId(id)) {
+            throw new UserNotFoundException("User with ID " + id + " not found");
+        }
+
+        List<UserWithRoleName> rows = userRepository.findWithRoleNamesById(id);
+        if (rows.isEmpty()) {
+            throw new UserNotFoundException("User with ID " + id + " not found");
+        }
+
+        List<String> roleNames = new ArrayList<>(rows.size());
+        for (UserWithRoleName row : rows) {
+            if (row.getRoleName() != null) {
+                roleNames.add(row.getRoleName());
+            }
+        }
+        return new UserDto(rows.get(0).getId(), rows.get(0).getUsername(), roleNames, rows.get(0).getVersion());
+    }
+
+    /**
+     * Reads only the version of the user, to answer conditional requests without loading it.
+     */
+    @Transactional(readOnly = true)
+    public long getUserVersion(long id) {
+        if (!userMembershipFilter.mightContainId(id)) {
+            throw new UserNotFoundException("User with ID " + id + " not found");
+        }
+        return userRepository.findVersionById(id)
+                .orElseThrow(() -> new UserNotFoundException("User with ID " + id + " not found"));
     }
 
-    public UserModel getUser(Long id) {
+    /**
+     * Lists users by ascending ID, starting after the given ID (keyset pagination), optionally only those having the
+     * given role. Reads projections only, so the cost of a page does not depend on the table size.
+     */
+    @Transactional(readOnly = true)
+    public List<UserDto> listUsers(long after, int limit, String role) {
+        List<UserSummary> page = role == null
+                ? userRepository.findPageAfter(after, Limit.of(limit))
+                : userRepository.findPageAfterWithRole(after, convertToRoleModel(Set.of(role)).get(0).getName(), Limit.of(limit));
+        if (page.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, List<String>> roleNames = new HashMap<>();
+        for (UserRoleName userRole : userRepository.findRoleNames(page.stream().map(UserSummary::getId).toList())) {
+            roleNames.computeIfAbsent(userRole.getUserId(), id -> new ArrayList<>()).add(userRole.getRoleName());
+        }
+
+        return page.stream()
+                .map(user -> new UserDto(user.getId(), user.getUsername(), roleNames.getOrDefault(user.getId(), List.of())))
+                .toList();
+    }
+
+    private UserModel findUserById(long id) {
+        if (!userMembershipFilter.mightContainId(id)) {
+            throw new UserNotFoundException("User with ID " + id + " not found");
+        }
         return userRepository.findById(id).orElseThrow(() -> new UserNotFoundException("User with ID " + id + " not found"));
     }
 
-    public String deleteUser(long id) {
-        UserModel user = userRepository.findById(id).orElseThrow(() -> new UserNotFoundException("User with ID " + id + " not found"));
+    /**
+     * @param expectedVersions versions the user may have for the change to apply, or null for any
+     */
+    private void checkVersion(UserModel user, Collection<Long> expectedVersions) {
+        if (expectedVersions != null && !expectedVersions.contains(user.getVersion())) {
+            throw new PreconditionFailedException("User with ID " + user.getId() + " has been modified, its version is now " + user.getVersion());
+        }
+    }
+
+    @Transactional // Reads the user on the primary when a replica is configured
+    public String deleteUser(long id, Collection<Long> expectedVersions) {
+        UserModel user = findUserById(id);
+        checkVersion(user, expectedVersions);
 
         if (user.getRoles().stream().anyMatch(role -> role.getName().equals(Role.ADMIN.getName()))) {
             throw new AdminRoleException("Cannot delete user with " + Role.ADMIN.getName() + " role");
         }
 
         userRepository.delete(user);
+        tokenRevocations.revoke(id);
+        refreshTokenService.revokeAll(id);
 
         return "";
     }
 
-    public UserModel modifyPassword(long id, String newPassword) {
-        UserModel userToRename = userRepository.findById(id).orElseThrow(() -> new UserNotFoundException("User with ID " + id + " not found"));
+    @Transactional
+    public UserModel modifyPassword(long id, String newPassword, Collection<Long> expectedVersions) {
+        UserModel userToRename = findUserById(id);
+        checkVersion(userToRename, expectedVersions);
 
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         long idFromToken = Long.parseLong(authentication.getPrincipal().toString());
@@ -94,6 +282,8 @@ public class UserService {
         validatePassword(newPassword);
 
         userToRename.setPassword(passwordEncoder.encode(newPassword));
+        tokenRevocations.revoke(id);
+        refreshTokenService.revokeAll(id);
 
         return userRepository.save(userToRename);
     }
@@ -102,20 +292,36 @@ public class UserService {
         if (password == null || password.isEmpty()) {
             throw new InvalidPasswordException("Password must not be null or empty");
         }
-        String passwordPattern = "^(?=.*[0-9])(?=.*[a-z])(?=.*[A-Z])(?=.*[!@#$%^&*()_+=-]).{10,}$";
 
-        if (!password.matches(passwordPattern)) {
-            throw new InvalidPasswordException("Password must be at least 10 characters long, contain at least one digit, one lowercase letter, one uppercase letter, and one special character");
+        for (PasswordPolicy policy : passwordPolicies) {
+            policy.validate(password);
         }
     }
 
-    public UserModel modifyRole(long id, Set<String> roles) {
-        UserModel userToModify = userRepository.findById(id).orElseThrow(() -> new UserNotFoundException("User with ID " + id + " not found"));
+    @Transactional
+    public UserModel modifyRole(long id, Set<String> roles, Collection<Long> expectedVersions) {
+        UserModel userToModify = findUserById(id);
+        checkVersion(userToModify, expectedVersions);
 
         if (userToModify.getRoles().stream().anyMatch(role -> role.getName().equals(Role.ADMIN.getName()))) {
             throw new AdminRoleException("Cannot modify roles of user with " + Role.ADMIN.getName() + " role");
         }
 
+        List<RoleModel> newRoles = validateAssignedRoles(roles);
+
+        userToModify.removeRoles();
+        for (RoleModel role : newRoles) {
+            userToModify.addRole(role);
+        }
+        tokenRevocations.revoke(id);
+
+        return userRepository.save(userToModify);
+    }
+
+    /**
+     * Checks that the roles may replace those of an existing user.
+     */
+    List<RoleModel> validateAssignedRoles(Set<String> roles) {
         if (roles == null || roles.isEmpty()) {
             throw new InvalidRoleException("At least one role must be provided");
         }
@@ -124,23 +330,12 @@ public class UserService {
             throw new AdminRoleException("Cannot give role " + Role.ADMIN.getName() + " to user");
         }
 
-        List<RoleModel> newRoles = convertToRoleModel(roles);
-
-        userToModify.removeRoles();
-        for (RoleModel role : newRoles) {
-            userToModify.addRole(role);
-        }
-
-        return userRepository.save(userToModify);
+        return convertToRoleModel(roles);
     }
 
     private List<RoleModel> convertToRoleModel(Set<String> rolesToCheck) {
-        List<RoleModel> allRoles = (List<RoleModel>) roleRepository.findAll();
-
         return rolesToCheck.stream()
-                .map(roleName -> allRoles.stream()
-                .filter(role -> role.getName().equals(roleName))
-                .findFirst()
+                .map(roleName -> roleCatalog.findByName(roleName)
                 .orElseThrow(() -> new InvalidRoleException("Role does not exists: " + roleName))).toList();
     }
 }
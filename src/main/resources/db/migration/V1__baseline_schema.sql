@@ -0,0 +1,25 @@
+-- Schema as generated by Hibernate (ddl-auto=update) before migrations were introduced. Existing databases only have
+-- these tables and are baselined at this version, so every later table must come from its own migration.
+
+create table api_user (
+    id bigint not null,
+    password varchar(255) not null,
+    username varchar(255) not null,
+    primary key (id),
+    constraint uk_api_user_username unique (username)
+);
+
+create table api_role (
+    id bigint not null,
+    name varchar(255) not null,
+    primary key (id),
+    constraint uk_api_role_name unique (name)
+);
+
+create table api_user_role (
+    api_role_id bigint not null,
+    api_user_id bigint not null,
+    primary key (api_role_id, api_user_id),
+    constraint fk_api_user_role_role foreign key (api_role_id) references api_role (id),
+    constraint fk_api_user_role_user foreign key (api_user_id) references api_user (id)
+);
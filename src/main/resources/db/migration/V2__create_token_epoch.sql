@@ -0,0 +1,10 @@
+-- Per-user token revocation counters. No foreign key to api_user: revocations must survive the deletion of the user.
+-- revoked_at is set from the database clock, so that instances can find recent revocations without comparing clocks
+create table api_token_epoch (
+    api_user_id bigint not null,
+    epoch bigint not null,
+    revoked_at timestamp(6) with time zone not null,
+    primary key (api_user_id)
+);
+
+create index idx_api_token_epoch_revoked_at on api_token_epoch (revoked_at);
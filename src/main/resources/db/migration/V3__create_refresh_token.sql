@@ -0,0 +1,13 @@
+-- Rotating refresh tokens, stored as the SHA-256 hash of their secret
+create table api_refresh_token (
+    id bigint not null,
+    family_id bigint not null,
+    api_user_id bigint not null,
+    token_hash bytea not null,
+    expires_at bigint not null,
+    used boolean not null,
+    primary key (id)
+);
+
+create index idx_api_refresh_token_family on api_refresh_token (family_id);
+create index idx_api_refresh_token_user on api_refresh_token (api_user_id);
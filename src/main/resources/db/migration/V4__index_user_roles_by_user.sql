@@ -0,0 +1,3 @@
+-- The primary key (api_role_id, api_user_id) serves role-based queries. Loading the roles of users needs the reverse
+-- order, which also covers the foreign key to api_user (deleting a user no longer scans the table).
+create index idx_api_user_role_user on api_user_role (api_user_id, api_role_id);
@@ -0,0 +1,2 @@
+-- Optimistic locking version, also served as the ETag of the user
+alter table api_user add column version bigint default 0 not null;
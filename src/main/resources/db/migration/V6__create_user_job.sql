@@ -0,0 +1,18 @@
+-- Bulk jobs over users, polled for progress. node_id tells which instance runs the job, so that it can fail its own
+-- unfinished jobs when it restarts
+create table api_user_job (
+    id bigint not null,
+    operation varchar(32) not null,
+    status varchar(32) not null,
+    node_id bigint not null,
+    requested_by bigint not null,
+    total bigint not null,
+    processed bigint not null,
+    affected bigint not null,
+    error varchar(1024),
+    created_at bigint not null,
+    finished_at bigint,
+    primary key (id)
+);
+
+create index idx_api_user_job_finished_at on api_user_job (finished_at);
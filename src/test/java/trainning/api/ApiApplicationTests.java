@@ -1,16 +1,34 @@
 package trainning.api;
 
+import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import trainning.api.model.UserModel;
+import trainning.api.repository.UserRepository;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 @ActiveProfiles("test")
 public class ApiApplicationTests {
+	@Autowired
+	private UserRepository userRepository;
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
 	@Test
 	void contextLoads() {
 		assertTrue(true);
 	}
+
+	@Test
+	void secondLevelCacheDisabledWithoutCacheProfile() {
+		UserModel admin = userRepository.findByUsername("admin");
+		userRepository.findById(admin.getId());
+
+		assertFalse(entityManagerFactory.getCache().contains(UserModel.class, admin.getId()));
+	}
 }
@@ -0,0 +1,49 @@
+package trainning.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts with the prod profile, whose HTTPS redirect must not apply to the plain HTTP management port. The test
+ * profile still provides the database and secrets, and TLS is disabled as no key store is available.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "server.ssl.enabled=false")
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles({"prod", "test"})
+public class ManagementPortTest {
+    @LocalManagementPort
+    private int managementPort;
+
+    @DynamicPropertySource
+    static void managementPort(DynamicPropertyRegistry registry) throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) { // A fixed port, as the redirect is skipped by port number
+            int port = socket.getLocalPort();
+            registry.add("management.server.port", () -> port);
+        }
+    }
+
+    @Test
+    public void shouldScrapePrometheusOverHttp() throws Exception {
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + managementPort + "/actuator/prometheus")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("jvm_memory_used_bytes"));
+    }
+}
@@ -0,0 +1,64 @@
+package trainning.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import trainning.api.dto.AuthDto;
+import trainning.api.repository.UserRepository;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+public class MetricsEndpointTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    public void shouldExposeHotPathMetrics() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        long adminId = userRepository.findByUsername("admin").getId();
+        mockMvc.perform(post("/v1/auth")
+                        .content(objectMapper.writeValueAsString(new AuthDto(adminId, "Password#1")))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/v1/auth")
+                        .content(objectMapper.writeValueAsString(new AuthDto(999L, "Password#1")))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("jwt_mint_seconds_bucket")))
+                .andExpect(content().string(containsString("password_hash_seconds_bucket{application=\"api\",operation=\"matches\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket")))
+                .andExpect(content().string(containsString("api_exceptions_total{application=\"api\",exception=\"UserNotFoundException\",status=\"404\"}")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")));
+    }
+
+    @Test
+    public void shouldExposeHealth() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void startupRequiresAuthentication() throws Exception {
+        mockMvc.perform(get("/actuator/startup"))
+                .andExpect(status().isUnauthorized());
+    }
+}
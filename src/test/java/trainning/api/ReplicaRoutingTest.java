@@ -0,0 +1,121 @@
+package trainning.api;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import trainning.api.config.ReplicaRoutingDataSource;
+import trainning.api.exception.UserNotFoundException;
+import trainning.api.model.Role;
+import trainning.api.service.AuthService;
+import trainning.api.service.UserService;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Uses two in-memory databases as primary and replica. The replica is a copy of the primary taken before each test,
+ * so rows written afterwards simulate replication lag.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.replica.url=jdbc:h2:mem:replica-${random.uuid};DB_CLOSE_DELAY=-1",
+        "spring.datasource.replica.username=sa",
+        "spring.datasource.replica.max-lag=60000",
+        "user.membership-filter.enabled=false"
+})
+@ActiveProfiles("test")
+public class ReplicaRoutingTest {
+    private static final String PASSWORD = "Password_1234";
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primaryDataSource;
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+    @Autowired
+    @Qualifier("replicaRoutingDataSource")
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @BeforeEach
+    public void replicate() {
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("DROP ALL OBJECTS");
+        List<String> script = new JdbcTemplate(primaryDataSource).queryForList("SCRIPT", String.class);
+        script.forEach(replica::execute);
+    }
+
+    @AfterEach
+    public void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void readOnlyCallsUseReplica() {
+        new JdbcTemplate(replicaDataSource).update("INSERT INTO api_user (id, username, password) VALUES (42, 'replicaOnly', 'hash')");
+
+        assertEquals("replicaOnly", userService.getUser(42).getUsername());
+    }
+
+    @Test
+    public void writesGoToPrimaryAndAreReadBackBySameUser() {
+        authenticateAs("1001");
+        long id = userService.registerUser("primaryOnly", PASSWORD, Set.of(Role.SIMPLE_USER.getName())).getId();
+
+        Integer onPrimary = new JdbcTemplate(primaryDataSource).queryForObject("SELECT COUNT(*) FROM api_user WHERE id = ?", Integer.class, id);
+        assertEquals(1, onPrimary);
+        assertEquals("primaryOnly", userService.getUser(id).getUsername()); // Pinned to the primary
+
+        authenticateAs("1002");
+        assertThrows(UserNotFoundException.class, () -> userService.getUser(id)); // Not replicated yet
+    }
+
+    @Test
+    @DirtiesContext
+    public void readsFallBackToPrimaryWhenReplicaIsDown() {
+        long id = userService.registerUser("primaryOnly", PASSWORD, Set.of(Role.SIMPLE_USER.getName())).getId();
+        replicaDataSource.close();
+
+        assertEquals("primaryOnly", userService.getUser(id).getUsername());
+        assertFalse(replicaRoutingDataSource.isReplicaHealthy());
+    }
+
+    @Test
+    public void loginRehashesPasswordReadFromStaleReplica() {
+        String outdatedHash = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        JdbcTemplate primary = new JdbcTemplate(primaryDataSource);
+        for (JdbcTemplate database : List.of(primary, new JdbcTemplate(replicaDataSource))) {
+            database.update("INSERT INTO api_user (id, username, password) VALUES (43, 'staleVersion', ?)", outdatedHash);
+        }
+        primary.update("UPDATE api_user SET version = version + 1 WHERE id = 43"); // Changed after the replica's copy
+
+        assertNotNull(authService.login(43L, PASSWORD));
+
+        String upgradedHash = primary.queryForObject("SELECT password FROM api_user WHERE id = 43", String.class);
+        assertFalse(passwordEncoder.upgradeEncoding(upgradedHash));
+        assertTrue(passwordEncoder.matches(PASSWORD, upgradedHash));
+        assertEquals(2, primary.queryForObject("SELECT version FROM api_user WHERE id = 43", Long.class));
+    }
+
+    private void authenticateAs(String principal) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+}
@@ -0,0 +1,65 @@
+package trainning.api;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import trainning.api.repository.UserRepository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts from a database created before migrations were introduced (only the tables of the baseline migration, no
+ * schema history) and checks that it is baselined, migrated and then accepted by Hibernate's schema validation.
+ */
+@SpringBootTest(properties = {
+        "spring.flyway.baseline-on-migrate=true",
+        "spring.flyway.baseline-version=1"
+})
+@ActiveProfiles("test")
+public class SchemaMigrationTest {
+    private static final String URL = "jdbc:h2:mem:baseline-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+    private static final long LEGACY_USER_ID = 1L;
+
+    @Autowired
+    private Flyway flyway;
+    @Autowired
+    private UserRepository userRepository;
+
+    @DynamicPropertySource
+    static void existingDatabase(DynamicPropertyRegistry registry) throws SQLException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(URL, "sa", "");
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/V1__baseline_schema.sql"));
+        }
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO api_role (id, name) VALUES (1, 'ADMIN'), (2, 'USER_ADMIN'), (3, 'SIMPLE_USER')");
+        jdbcTemplate.update("INSERT INTO api_user (id, username, password) VALUES (?, 'legacyUser', 'hash')", LEGACY_USER_ID);
+        jdbcTemplate.update("INSERT INTO api_user_role (api_role_id, api_user_id) VALUES (3, ?)", LEGACY_USER_ID);
+        registry.add("spring.datasource.url", () -> URL);
+    }
+
+    @Test
+    public void existingDatabaseIsBaselinedAndMigrated() {
+        MigrationInfo[] applied = flyway.info().applied();
+        assertTrue(applied[0].getType().isBaseline()); // V1 itself is not run again
+        assertEquals("1", applied[0].getVersion().toString());
+        assertTrue(applied.length > 1);
+        assertEquals(0, flyway.info().pending().length);
+
+        assertEquals(0, userRepository.findVersionById(LEGACY_USER_ID).orElseThrow());
+    }
+}
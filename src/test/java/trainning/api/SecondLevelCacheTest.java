@@ -0,0 +1,67 @@
+package trainning.api;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import trainning.api.model.Role;
+import trainning.api.model.UserModel;
+import trainning.api.repository.RoleRepository;
+import trainning.api.repository.UserRepository;
+import trainning.api.service.UserJobService;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles({"test", "cache"})
+public class SecondLevelCacheTest {
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserJobService userJobService;
+
+    @Test
+    public void loadedUsersAreCached() {
+        UserModel admin = userRepository.findByUsername("admin");
+        userRepository.findById(admin.getId());
+
+        assertTrue(entityManagerFactory.getCache().contains(UserModel.class, admin.getId()));
+    }
+
+    @Test
+    public void bulkRoleChangeEvictsCachedUsers() throws InterruptedException {
+        UserModel user = new UserModel();
+        user.setUsername("bulkUser");
+        user.setPassword("unused");
+        user.addRole(roleRepository.findByName(Role.SIMPLE_USER.getName()));
+        long id = userRepository.save(user).getId();
+        userRepository.findById(id);
+        assertTrue(entityManagerFactory.getCache().contains(UserModel.class, id));
+
+        long adminId = userRepository.findByUsername("admin").getId();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(String.valueOf(adminId), null, List.of()));
+        try {
+            long jobId = userJobService.setRoles(List.of(id), null, Set.of(Role.USER_ADMIN.getName())).getId();
+            for (int attempt = 0; attempt < 100 && userJobService.getJob(jobId).getFinishedAt() == null; attempt++) {
+                Thread.sleep(50);
+            }
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        assertFalse(entityManagerFactory.getCache().contains(UserModel.class, id));
+        assertEquals(Role.USER_ADMIN.getName(), userRepository.findById(id).orElseThrow().getRoles().iterator().next().getName());
+    }
+}
@@ -0,0 +1,37 @@
+package trainning.api.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BloomFilterTest {
+    @Test
+    public void addedKeysAreAlwaysFound() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (long id = 0; id < 10_000; id++) {
+            filter.add(id);
+            filter.add("user" + id);
+        }
+
+        for (long id = 0; id < 10_000; id++) {
+            assertTrue(filter.mightContain(id));
+            assertTrue(filter.mightContain("user" + id));
+        }
+    }
+
+    @Test
+    public void falsePositiveRateStaysNearTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (long id = 0; id < 10_000; id++) {
+            filter.add(id);
+        }
+
+        int falsePositives = 0;
+        for (long id = 10_000; id < 110_000; id++) {
+            if (filter.mightContain(id)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "Too many false positives: " + falsePositives);
+    }
+}
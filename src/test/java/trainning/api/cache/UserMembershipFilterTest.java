@@ -0,0 +1,83 @@
+package trainning.api.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class UserMembershipFilterTest {
+    private static final long USER_ID = 4242;
+    private static final String USERNAME = "insertedDuringRebuild";
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private ObjectProvider<PlatformTransactionManager> transactionManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void deleteUser() {
+        jdbcTemplate.update("DELETE FROM api_user WHERE id = ?", USER_ID);
+    }
+
+    @Test
+    public void userInsertedDuringRebuildIsKept() throws Exception {
+        UserMembershipFilter filter = newFilter();
+        filter.init(); // As at startup, before the web server accepts requests
+
+        // A request served before the ready event, whose insert is not committed yet when the rebuild reads the table
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch rebuilt = new CountDownLatch(1);
+        CompletableFuture<Void> insert = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO api_user (id, username, password) VALUES (?, ?, 'hash')", USER_ID, USERNAME);
+            filter.add(USER_ID, USERNAME); // As done by UserMembershipListener
+            inserted.countDown();
+            await(rebuilt);
+        }));
+        await(inserted);
+
+        filter.rebuild();
+        rebuilt.countDown();
+        insert.get(10, TimeUnit.SECONDS);
+
+        assertTrue(filter.mightContainId(USER_ID));
+        assertTrue(filter.mightContainUsername(USERNAME));
+    }
+
+    private UserMembershipFilter newFilter() {
+        UserMembershipFilter filter = new UserMembershipFilter();
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "expectedInsertions", 1000L);
+        ReflectionTestUtils.setField(filter, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(filter, "fetchSize", 100);
+        ReflectionTestUtils.setField(filter, "dataSource", dataSource);
+        ReflectionTestUtils.setField(filter, "transactionManager", transactionManager);
+        return filter;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
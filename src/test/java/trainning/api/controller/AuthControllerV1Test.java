@@ -6,22 +6,29 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import trainning.api.dto.AuthDto;
+import trainning.api.dto.RefreshDto;
 import trainning.api.exception.InvalidCredentialsException;
+import trainning.api.exception.InvalidRefreshTokenException;
 import trainning.api.exception.UserNotFoundException;
 import trainning.api.model.Role;
 import trainning.api.model.UserModel;
 import trainning.api.repository.RoleRepository;
 import trainning.api.repository.UserRepository;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -41,6 +48,7 @@ public class AuthControllerV1Test {
     private static final String SIMPLE_USER = "simpleUser";
     private static final String PASSWORD = "1234";
     private static final String AUTH_ENDPOINT = "/v1/auth";
+    private static final String REFRESH_ENDPOINT = "/v1/auth/refresh";
 
     @BeforeEach
     public void setUpDatabase() {
@@ -137,5 +145,116 @@ public class AuthControllerV1Test {
         assertTrue(resultActions.andReturn().getResponse().getContentAsString().matches(".*\\..*\\..*"));
     }
 
+    @Test
+    public void outdatedHashIsUpgradedOnLogin() throws Exception {
+        UserModel user = userRepository.findById(simpleUserId).orElseThrow();
+        user.setPassword(new BCryptPasswordEncoder(4).encode(PASSWORD));
+        userRepository.save(user);
+
+        AuthDto authDto = new AuthDto(simpleUserId, PASSWORD);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        ResultActions resultActions = mockMvc.perform(
+                post(AUTH_ENDPOINT)
+                        .content(objectMapper.writeValueAsString(authDto))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+        );
+
+        resultActions.andExpect(status().isOk());
+        String upgradedPassword = userRepository.findById(simpleUserId).orElseThrow().getPassword();
+        assertFalse(passwordEncoder.upgradeEncoding(upgradedPassword));
+        assertTrue(passwordEncoder.matches(PASSWORD, upgradedPassword));
+    }
+
+    @Test
+    public void tooManyAttemptsForUser() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(
+                    post(AUTH_ENDPOINT)
+                            .content(objectMapper.writeValueAsString(new AuthDto(simpleUserId, "wrong_password")))
+                            .contentType(MediaType.APPLICATION_JSON)
+            ).andExpect(status().isBadRequest());
+        }
+
+        mockMvc.perform(
+                post(AUTH_ENDPOINT)
+                        .content(objectMapper.writeValueAsString(new AuthDto(simpleUserId, PASSWORD)))
+                        .contentType(MediaType.APPLICATION_JSON)
+        ).andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    public void refreshRotatesTokens() throws Exception {
+        String refreshToken = login();
+
+        ResultActions resultActions = refresh(refreshToken);
+
+        resultActions.andExpect(status().isOk());
+        assertTrue(resultActions.andReturn().getResponse().getContentAsString().matches(".*\\..*\\..*"));
+        String rotatedToken = resultActions.andReturn().getResponse().getHeader(AuthControllerV1.REFRESH_TOKEN_HEADER);
+        assertNotEquals(refreshToken, rotatedToken);
+        refresh(rotatedToken).andExpect(status().isOk());
+    }
+
+    @Test
+    public void reusedRefreshTokenRevokesItsFamily() throws Exception {
+        String refreshToken = login();
+        String rotatedToken = refresh(refreshToken).andReturn().getResponse()
+                .getHeader(AuthControllerV1.REFRESH_TOKEN_HEADER);
+
+        refresh(refreshToken).andExpect(status().isUnauthorized());
+        refresh(rotatedToken).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void invalidRefreshToken() throws Exception {
+        String refreshToken = login();
+        String forgedToken = refreshToken.substring(0, refreshToken.indexOf('.') + 1) + "A".repeat(43);
+
+        for (String token : new String[]{forgedToken, "123", "abc.def", "."}) {
+            refresh(token).andExpect(status().isUnauthorized())
+                    .andExpect(result -> {
+                        Throwable exception = result.getResolvedException();
+                        if (exception instanceof InvalidRefreshTokenException) {
+                            // Expected exception
+                        } else {
+                            throw new RuntimeException("Expected InvalidRefreshTokenException, but got: " + exception);
+                        }
+                    });
+        }
+        refresh(refreshToken).andExpect(status().isOk());
+    }
+
+    @Test
+    public void refreshTokenOfDeletedUser() throws Exception {
+        String refreshToken = login();
+        userRepository.deleteById(simpleUserId);
+
+        refresh(refreshToken).andExpect(status().isUnauthorized());
+    }
+
+    private String login() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        return mockMvc.perform(
+                post(AUTH_ENDPOINT)
+                        .content(objectMapper.writeValueAsString(new AuthDto(simpleUserId, PASSWORD)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+        ).andReturn().getResponse().getHeader(AuthControllerV1.REFRESH_TOKEN_HEADER);
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        return mockMvc.perform(
+                post(REFRESH_ENDPOINT)
+                        .content(objectMapper.writeValueAsString(new RefreshDto(refreshToken)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON)
+        );
+    }
+
     // TODO: Add tests for expired token
 }
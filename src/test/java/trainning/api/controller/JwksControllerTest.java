@@ -0,0 +1,66 @@
+package trainning.api.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import trainning.api.security.JwtUtil;
+
+import java.security.PublicKey;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "jwt.signing.algorithm=EdDSA")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class JwksControllerTest {
+    private static final String JWKS_ENDPOINT = "/.well-known/jwks.json";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    public void publishedKeyVerifiesTokens() throws Exception {
+        MvcResult result = mockMvc.perform(get(JWKS_ENDPOINT))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=3600, public"))
+                .andReturn();
+
+        JsonNode keys = new ObjectMapper().readTree(result.getResponse().getContentAsString()).get("keys");
+        assertEquals(1, keys.size());
+        assertEquals("OKP", keys.get(0).get("kty").asText());
+        PublicJwk<?> jwk = (PublicJwk<?>) Jwks.parser().build().parse(keys.get(0).toString());
+
+        String token = jwtUtil.generateToken(42L, Set.of(), 0);
+        String subject = Jwts.parser().verifyWith((PublicKey) jwk.toKey()).build()
+                .parseSignedClaims(token).getPayload().getSubject();
+        assertEquals("42", subject);
+        assertEquals(jwk.getId(), Jwts.parser().verifyWith((PublicKey) jwk.toKey()).build()
+                .parseSignedClaims(token).getHeader().getKeyId());
+    }
+
+    @Test
+    public void unchangedKeySetIsNotSentAgain() throws Exception {
+        String etag = mockMvc.perform(get(JWKS_ENDPOINT))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get(JWKS_ENDPOINT).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+    }
+}
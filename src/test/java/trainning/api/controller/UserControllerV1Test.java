@@ -11,6 +11,7 @@ import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import trainning.api.dto.CreateUserDto;
 import trainning.api.model.Role;
@@ -22,15 +23,19 @@ import trainning.api.service.AuthService;
 
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -57,8 +62,11 @@ public class UserControllerV1Test {
 
     public static final String API_PREFIX = "/v1/";
     public static final String GET_USER_ENDPOINT = API_PREFIX + "user/";
+    public static final String LIST_USERS_ENDPOINT = API_PREFIX + "user";
+    public static final String EXPORT_USERS_ENDPOINT = API_PREFIX + "user/export";
     public static final String DELETE_USER_ENDPOINT = API_PREFIX + "user/";
     public static final String CREATE_USER_ENDPOINT = API_PREFIX + "user/create";
+    public static final String BATCH_CREATE_USER_ENDPOINT = API_PREFIX + "user/batch";
     public static final String MODIFY_PASSWORD_PREFIX = API_PREFIX + "user/";
     public static final String MODIFY_PASSWORD_SUFFIX = "/password";
     public static final String MODIFY_ROLE_PREFIX = API_PREFIX + "user/";
@@ -153,6 +161,88 @@ public class UserControllerV1Test {
                 .andExpect(content().string(""));
     }
 
+    @Test
+    public void listUsersSimpleUserForbidden() throws Exception {
+        ResultActions resultActions = mockMvc.perform(get(LIST_USERS_ENDPOINT)
+                                                              .header("Authorization", "Bearer " + simpleUserToken)
+                                                              .accept(MediaType.APPLICATION_JSON));
+
+        resultActions.andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void listUsersPaginates() throws Exception {
+        ResultActions firstPage = mockMvc.perform(get(LIST_USERS_ENDPOINT + "?limit=2")
+                                                          .header("Authorization", "Bearer " + userAdminToken)
+                                                          .accept(MediaType.APPLICATION_JSON));
+
+        firstPage.andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", hasSize(2)))
+                .andExpect(jsonPath("$.users[0].id").value(simpleUserId))
+                .andExpect(jsonPath("$.users[0].roles[0].name").value(Role.SIMPLE_USER.getName()))
+                .andExpect(jsonPath("$.users[1].id").value(userAdminId))
+                .andExpect(jsonPath("$.nextAfter").value(userAdminId));
+
+        ResultActions secondPage = mockMvc.perform(get(LIST_USERS_ENDPOINT + "?limit=2&after=" + userAdminId)
+                                                           .header("Authorization", "Bearer " + userAdminToken)
+                                                           .accept(MediaType.APPLICATION_JSON));
+
+        secondPage.andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", hasSize(1)))
+                .andExpect(jsonPath("$.users[0].id").value(adminId))
+                .andExpect(jsonPath("$.nextAfter").doesNotExist());
+    }
+
+    @Test
+    public void listUsersFilteredByRole() throws Exception {
+        ResultActions resultActions = mockMvc.perform(get(LIST_USERS_ENDPOINT + "?role=" + Role.USER_ADMIN.getName())
+                                                              .header("Authorization", "Bearer " + adminToken)
+                                                              .accept(MediaType.APPLICATION_JSON));
+
+        resultActions.andExpect(status().isOk())
+                .andExpect(jsonPath("$.users", hasSize(1)))
+                .andExpect(jsonPath("$.users[0].username").value(USER_ADMIN_USERNAME));
+    }
+
+    @Test
+    public void listUsersInvalidRole() throws Exception {
+        ResultActions resultActions = mockMvc.perform(get(LIST_USERS_ENDPOINT + "?role=INVALID_ROLE")
+                                                              .header("Authorization", "Bearer " + adminToken)
+                                                              .accept(MediaType.APPLICATION_JSON));
+
+        resultActions.andExpect(status().isBadRequest())
+                .andExpect(content().string("Role does not exists: INVALID_ROLE"));
+    }
+
+    @Test
+    public void exportUsersSimpleUserForbidden() throws Exception {
+        ResultActions resultActions = mockMvc.perform(get(EXPORT_USERS_ENDPOINT)
+                                                              .header("Authorization", "Bearer " + simpleUserToken));
+
+        resultActions.andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void exportUsersSuccess() throws Exception {
+        MvcResult asyncResult = mockMvc.perform(get(EXPORT_USERS_ENDPOINT)
+                                                        .header("Authorization", "Bearer " + userAdminToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String expected = exportLine(simpleUserId, SIMPLE_USER_USERNAME, Role.SIMPLE_USER)
+                + exportLine(userAdminId, USER_ADMIN_USERNAME, Role.USER_ADMIN)
+                + exportLine(adminId, ADMIN_USERNAME, Role.ADMIN);
+        assertEquals(expected, body);
+    }
+
+    private static String exportLine(long id, String username, Role role) {
+        return "{\"id\":" + id + ",\"username\":\"" + username + "\",\"roles\":[{\"name\":\"" + role.getName() + "\"}]}\n";
+    }
+
     @Test
     public void registerUserWithoutToken() throws Exception {
         CreateUserDto requestBody = new CreateUserDto("newUser", PASSWORD, Collections.singleton(Role.SIMPLE_USER.getName()));
@@ -715,4 +805,159 @@ public class UserControllerV1Test {
         Set<RoleModel> newRoles = userRepository.findById(simpleUserId).orElseThrow().getRoles();
         assertTrue(newRoles.stream().anyMatch(role -> role.getName().equals(Role.SIMPLE_USER.getName())));
     }
+
+    @Test
+    public void modifyRoleRevokesExistingTokens() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        mockMvc.perform(post(MODIFY_ROLE_PREFIX + userAdminId + MODIFY_ROLE_SUFFIX)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Set.of(Role.SIMPLE_USER.getName()))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(GET_USER_ENDPOINT + simpleUserId)
+                        .header("Authorization", "Bearer " + userAdminToken))
+                .andExpect(status().isUnauthorized());
+
+        String newToken = authService.login(userAdminId, PASSWORD);
+        mockMvc.perform(get(GET_USER_ENDPOINT + simpleUserId)
+                        .header("Authorization", "Bearer " + newToken))
+                .andExpect(status().isForbidden()); // Only a simple user now
+    }
+
+    @Test
+    public void deleteUserRevokesExistingTokens() throws Exception {
+        mockMvc.perform(delete(DELETE_USER_ENDPOINT + userAdminId)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(GET_USER_ENDPOINT + simpleUserId)
+                        .header("Authorization", "Bearer " + userAdminToken))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void getUserNotModifiedSinceETag() throws Exception {
+        String etag = mockMvc.perform(get(GET_USER_ENDPOINT + simpleUserId)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag);
+
+        mockMvc.perform(get(GET_USER_ENDPOINT + simpleUserId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void modifyRoleChangesETag() throws Exception {
+        String etag = mockMvc.perform(get(GET_USER_ENDPOINT + simpleUserId)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andReturn().getResponse().getHeader("ETag");
+
+        String newEtag = mockMvc.perform(post(MODIFY_ROLE_PREFIX + simpleUserId + MODIFY_ROLE_SUFFIX)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(new ObjectMapper().writeValueAsString(Set.of(Role.USER_ADMIN.getName()))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(etag, newEtag);
+
+        mockMvc.perform(get(GET_USER_ENDPOINT + simpleUserId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", newEtag))
+                .andExpect(jsonPath("$.roles[0].name").value(Role.USER_ADMIN.getName()));
+    }
+
+    @Test
+    public void modifyPasswordStaleIfMatch() throws Exception {
+        String etag = mockMvc.perform(get(GET_USER_ENDPOINT + simpleUserId)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(post(MODIFY_PASSWORD_PREFIX + simpleUserId + MODIFY_PASSWORD_SUFFIX)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(NEW_PASSWORD))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete(DELETE_USER_ENDPOINT + simpleUserId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-Match", etag))
+                .andExpect(status().isPreconditionFailed());
+        assertTrue(userRepository.existsById(simpleUserId));
+    }
+
+    @Test
+    public void registerUsersBatchWithoutPermission() throws Exception {
+        List<CreateUserDto> requestBody = List.of(new CreateUserDto("newUser", PASSWORD, Collections.singleton(Role.SIMPLE_USER.getName())));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        ResultActions resultActions = mockMvc.perform(post(BATCH_CREATE_USER_ENDPOINT)
+                                                              .header("Authorization", "Bearer " + simpleUserToken)
+                                                              .contentType(MediaType.APPLICATION_JSON)
+                                                              .content(objectMapper.writeValueAsString(requestBody)));
+
+        resultActions.andExpect(status().isForbidden())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void registerUsersBatchReportsEachItem() throws Exception {
+        List<CreateUserDto> requestBody = List.of(
+                new CreateUserDto("batchUser1", PASSWORD, Collections.singleton(Role.SIMPLE_USER.getName())),
+                new CreateUserDto(SIMPLE_USER_USERNAME, PASSWORD, Collections.singleton(Role.SIMPLE_USER.getName())),
+                new CreateUserDto("batchUser1", PASSWORD, Collections.singleton(Role.SIMPLE_USER.getName())),
+                new CreateUserDto("batchUser2", INVALID_PASSWORD, Collections.singleton(Role.SIMPLE_USER.getName())),
+                new CreateUserDto("batchUser3", PASSWORD, Collections.singleton(Role.ADMIN.getName())),
+                new CreateUserDto("batchUser4", PASSWORD, Collections.singleton(Role.USER_ADMIN.getName()))
+        );
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        ResultActions resultActions = mockMvc.perform(post(BATCH_CREATE_USER_ENDPOINT)
+                                                              .header("Authorization", "Bearer " + userAdminToken)
+                                                              .contentType(MediaType.APPLICATION_JSON)
+                                                              .content(objectMapper.writeValueAsString(requestBody)));
+
+        resultActions.andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(6)))
+                .andExpect(jsonPath("$[0].user.username").value("batchUser1"))
+                .andExpect(jsonPath("$[1].error").value("Username already taken: " + SIMPLE_USER_USERNAME))
+                .andExpect(jsonPath("$[2].error").value("Username already taken: batchUser1"))
+                .andExpect(jsonPath("$[3].error").value("Password must be at least 10 characters long, contain at least one digit, one lowercase letter, one uppercase letter, and one special character"))
+                .andExpect(jsonPath("$[4].error").value("Cannot register user with " + Role.ADMIN.getName() + " role"))
+                .andExpect(jsonPath("$[5].user.roles[0].name").value(Role.USER_ADMIN.getName()));
+
+        assertNotNull(userRepository.findByUsername("batchUser1"));
+        assertNotNull(userRepository.findByUsername("batchUser4"));
+        assertNull(userRepository.findByUsername("batchUser2"));
+    }
+
+    @Test
+    public void registerUsersBatchInvalidItemDoesNotReserveUsername() throws Exception {
+        List<CreateUserDto> requestBody = List.of(
+                new CreateUserDto("batchUser5", INVALID_PASSWORD, Collections.singleton(Role.SIMPLE_USER.getName())),
+                new CreateUserDto("batchUser5", PASSWORD, Collections.singleton(Role.SIMPLE_USER.getName()))
+        );
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        ResultActions resultActions = mockMvc.perform(post(BATCH_CREATE_USER_ENDPOINT)
+                                                              .header("Authorization", "Bearer " + userAdminToken)
+                                                              .contentType(MediaType.APPLICATION_JSON)
+                                                              .content(objectMapper.writeValueAsString(requestBody)));
+
+        resultActions.andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].error").value("Password must be at least 10 characters long, contain at least one digit, one lowercase letter, one uppercase letter, and one special character"))
+                .andExpect(jsonPath("$[1].user.username").value("batchUser5"));
+
+        assertNotNull(userRepository.findByUsername("batchUser5"));
+    }
 }
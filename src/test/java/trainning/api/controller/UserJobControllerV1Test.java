@@ -0,0 +1,194 @@
+package trainning.api.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import trainning.api.dto.UserJobRequestDto;
+import trainning.api.model.Role;
+import trainning.api.model.UserModel;
+import trainning.api.repository.RefreshTokenRepository;
+import trainning.api.repository.RoleRepository;
+import trainning.api.repository.UserRepository;
+import trainning.api.service.AuthService;
+import trainning.api.service.RefreshTokenService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class UserJobControllerV1Test {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private long userAdminId;
+    private long adminId;
+    private String userAdminToken;
+    private String adminToken;
+    private List<Long> simpleUserIds;
+
+    private static final String JOBS_ENDPOINT = "/v1/user/jobs/";
+    private static final String PASSWORD = "Password_1234";
+    private static final int SIMPLE_USERS = 5; // More than one chunk in tests
+
+    @BeforeEach
+    public void setUpDatabase() {
+        userRepository.deleteAll();
+
+        userAdminId = createUser("userAdminUser", Role.USER_ADMIN.getName());
+        userAdminToken = authService.login(userAdminId, PASSWORD);
+        adminId = createUser("adminUser", Role.ADMIN.getName());
+        adminToken = authService.login(adminId, PASSWORD);
+
+        simpleUserIds = new ArrayList<>();
+        for (int i = 0; i < SIMPLE_USERS; i++) {
+            simpleUserIds.add(createUser("simpleUser" + i, Role.SIMPLE_USER.getName()));
+        }
+    }
+
+    private long createUser(String username, String role) {
+        UserModel user = new UserModel();
+        user.setUsername(username);
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        user.addRole(roleRepository.findByName(role));
+        return userRepository.save(user).getId();
+    }
+
+    private JsonNode awaitJob(String location, String token) throws Exception {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            JsonNode job = objectMapper.readTree(mockMvc.perform(get(location).header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            if (job.get("finishedAt") != null) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Job " + location + " did not finish");
+    }
+
+    @Test
+    public void modifyRolesByIdSkipsAdmins() throws Exception {
+        long targetId = simpleUserIds.get(0);
+        String targetToken = authService.login(targetId, PASSWORD);
+        long versionBefore = userRepository.findVersionById(targetId).orElseThrow();
+        UserJobRequestDto request = new UserJobRequestDto(List.of(targetId, simpleUserIds.get(1), adminId, 42L), null,
+                Set.of(Role.USER_ADMIN.getName()));
+
+        String location = mockMvc.perform(post(JOBS_ENDPOINT + "roles")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.operation").value("SET_ROLES"))
+                .andExpect(jsonPath("$.total").value(4))
+                .andReturn().getResponse().getHeader("Location");
+
+        JsonNode job = awaitJob(location, adminToken);
+        assertEquals("SUCCEEDED", job.get("status").asText());
+        assertEquals(4, job.get("processed").asLong());
+        assertEquals(2, job.get("affected").asLong());
+
+        UserModel target = userRepository.findById(targetId).orElseThrow();
+        assertEquals(1, target.getRoles().size());
+        assertEquals(Role.USER_ADMIN.getName(), target.getRoles().iterator().next().getName());
+        assertTrue(target.getVersion() > versionBefore);
+        assertEquals(Role.ADMIN.getName(), userRepository.findById(adminId).orElseThrow().getRoles().iterator().next().getName());
+
+        mockMvc.perform(get(JOBS_ENDPOINT + job.get("id").asLong()).header("Authorization", "Bearer " + targetToken))
+                .andExpect(status().isUnauthorized()); // Token issued before the role change
+    }
+
+    @Test
+    public void deleteUsersByRole() throws Exception {
+        String refreshToken = refreshTokenService.issue(simpleUserIds.get(0));
+        long refreshTokenId = Long.parseLong(refreshToken.substring(0, refreshToken.indexOf('.')));
+        UserJobRequestDto request = new UserJobRequestDto(null, Role.SIMPLE_USER.getName(), null);
+
+        String location = mockMvc.perform(post(JOBS_ENDPOINT + "delete")
+                        .header("Authorization", "Bearer " + userAdminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andReturn().getResponse().getHeader("Location");
+
+        JsonNode job = awaitJob(location, userAdminToken);
+        assertEquals("SUCCEEDED", job.get("status").asText());
+        assertEquals(SIMPLE_USERS, job.get("affected").asLong());
+        for (long simpleUserId : simpleUserIds) {
+            assertFalse(userRepository.existsById(simpleUserId));
+        }
+        assertTrue(userRepository.existsById(userAdminId));
+        assertFalse(refreshTokenRepository.existsById(refreshTokenId));
+    }
+
+    @Test
+    public void modifyRolesWithUserAdminForbidden() throws Exception {
+        UserJobRequestDto request = new UserJobRequestDto(simpleUserIds, null, Set.of(Role.USER_ADMIN.getName()));
+
+        mockMvc.perform(post(JOBS_ENDPOINT + "roles")
+                        .header("Authorization", "Bearer " + userAdminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void modifyRolesToAdminForbidden() throws Exception {
+        UserJobRequestDto request = new UserJobRequestDto(simpleUserIds, null, Set.of(Role.ADMIN.getName()));
+
+        mockMvc.perform(post(JOBS_ENDPOINT + "roles")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void deleteUsersWithoutSelectorInvalid() throws Exception {
+        UserJobRequestDto request = new UserJobRequestDto(simpleUserIds, Role.SIMPLE_USER.getName(), null);
+
+        mockMvc.perform(post(JOBS_ENDPOINT + "delete")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getJobNotFound() throws Exception {
+        mockMvc.perform(get(JOBS_ENDPOINT + 42).header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isNotFound());
+    }
+}
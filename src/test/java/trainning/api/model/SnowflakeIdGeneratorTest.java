@@ -0,0 +1,60 @@
+package trainning.api.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnowflakeIdGeneratorTest {
+    private static final long NOW = SnowflakeIdGenerator.EPOCH_MS + 1_000_000;
+
+    @Test
+    public void generatesIncreasingIdsWithNodeId() {
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5, 10, clock::get);
+
+        long first = generator.nextId();
+        long second = generator.nextId();
+        clock.incrementAndGet();
+        long third = generator.nextId();
+
+        assertTrue(first < second && second < third);
+        assertEquals(5, (first >>> SnowflakeIdGenerator.SEQUENCE_BITS) & SnowflakeIdGenerator.MAX_NODE_ID);
+        assertEquals(1_000_000, first >>> (SnowflakeIdGenerator.NODE_ID_BITS + SnowflakeIdGenerator.SEQUENCE_BITS));
+    }
+
+    @Test
+    public void waitsForNextMillisecondWhenSequenceIsExhausted() {
+        AtomicLong clock = new AtomicLong(NOW);
+        AtomicLong reads = new AtomicLong();
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0, 10, () -> reads.incrementAndGet() > 5000 ? NOW + 1 : clock.get());
+
+        long previous = -1;
+        for (int i = 0; i <= 1 << SnowflakeIdGenerator.SEQUENCE_BITS; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            previous = id;
+        }
+        assertEquals(1_000_001, previous >>> (SnowflakeIdGenerator.NODE_ID_BITS + SnowflakeIdGenerator.SEQUENCE_BITS));
+    }
+
+    @Test
+    public void toleratesSmallClockDriftOnly() {
+        AtomicLong clock = new AtomicLong(NOW);
+        AtomicLong reads = new AtomicLong();
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0, 10, () -> clock.get() + (reads.incrementAndGet() > 10 ? 10 : 0));
+
+        long first = generator.nextId();
+        clock.addAndGet(-5);
+        assertTrue(generator.nextId() > first); // Waits until the clock catches up
+
+        clock.addAndGet(-100);
+        assertThrows(IllegalStateException.class, generator::nextId);
+    }
+
+    @Test
+    public void rejectsInvalidNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024, 10, System::currentTimeMillis));
+    }
+}
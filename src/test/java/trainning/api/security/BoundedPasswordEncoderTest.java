@@ -0,0 +1,63 @@
+package trainning.api.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import trainning.api.exception.ServerBusyException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedPasswordEncoderTest {
+    @Test
+    public void delegatesToEncoder() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new PlainEncoder(null), 1, 1, 1);
+
+        assertEquals("secret", encoder.encode("secret"));
+        assertTrue(encoder.matches("secret", "secret"));
+        encoder.shutdown();
+    }
+
+    @Test
+    public void failsFastWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new PlainEncoder(release), 1, 1, 5);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+
+        callers.submit(() -> encoder.encode("running"));
+        callers.submit(() -> encoder.encode("queued"));
+        while (encoder.getQueueDepth() < 1) {
+            Thread.sleep(5);
+        }
+
+        ServerBusyException exception = assertThrows(ServerBusyException.class, () -> encoder.encode("rejected"));
+        assertEquals(5, exception.getRetryAfterSeconds());
+
+        release.countDown();
+        callers.shutdown();
+        assertTrue(callers.awaitTermination(5, TimeUnit.SECONDS));
+        encoder.shutdown();
+    }
+
+    private record PlainEncoder(CountDownLatch release) implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
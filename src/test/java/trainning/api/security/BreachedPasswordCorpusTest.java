@@ -0,0 +1,75 @@
+package trainning.api.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import trainning.api.exception.InvalidPasswordException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BreachedPasswordCorpusTest {
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void findsBreachedPasswords() throws IOException {
+        List<String> breached = List.of("Password_1234", "Azerty123456!", "Qwerty_0987654", "Abc123456789_");
+
+        try (BreachedPasswordCorpus corpus = BreachedPasswordCorpus.open(corpusOf(breached))) {
+            assertEquals(breached.size(), corpus.size());
+            for (String password : breached) {
+                assertTrue(corpus.contains(password), password);
+            }
+            assertFalse(corpus.contains("Not_breached_42"));
+            assertFalse(corpus.contains(""));
+        }
+    }
+
+    @Test
+    public void handlesEmptyCorpus() throws IOException {
+        try (BreachedPasswordCorpus corpus = BreachedPasswordCorpus.open(corpusOf(List.of()))) {
+            assertEquals(0, corpus.size());
+            assertFalse(corpus.contains("Password_1234"));
+        }
+    }
+
+    @Test
+    public void rejectsUnsortedInput() throws IOException {
+        Path source = directory.resolve("unsorted.txt");
+        Files.write(source, List.of("FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFF:3", "0000000000000000000000000000000000000000:1"));
+
+        assertThrows(IllegalArgumentException.class, () -> BreachedPasswordCorpus.convert(source, directory.resolve("corpus.bin")));
+    }
+
+    @Test
+    public void policyRejectsBreachedPasswords() throws IOException {
+        try (BreachedPasswordPolicy policy = new BreachedPasswordPolicy(BreachedPasswordCorpus.open(corpusOf(List.of("Password_1234"))))) {
+            assertThrows(InvalidPasswordException.class, () -> policy.validate("Password_1234"));
+            assertDoesNotThrow(() -> policy.validate("Password_12345"));
+        }
+    }
+
+    private Path corpusOf(List<String> passwords) throws IOException {
+        Path source = directory.resolve("hashes.txt");
+        Path corpus = directory.resolve("corpus.bin");
+        Files.write(source, passwords.stream().map(BreachedPasswordCorpusTest::sha1).sorted().map(hash -> hash + ":1").toList());
+        BreachedPasswordCorpus.convert(source, corpus);
+        return corpus;
+    }
+
+    private static String sha1(String password) {
+        try {
+            return HexFormat.of().withUpperCase().formatHex(MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
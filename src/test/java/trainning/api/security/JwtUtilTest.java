@@ -0,0 +1,120 @@
+package trainning.api.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import trainning.api.model.Role;
+import trainning.api.model.RoleModel;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtUtilTest {
+    private static final String SECRET = "12345678901234567890123456789012";
+    private static final String KEY_STORE_PASSWORD = "changeit";
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    public void setUp() {
+        jwtUtil = jwtUtil("HS256", null, null);
+    }
+
+    @Test
+    public void verifyTokenReturnsAllClaims() {
+        RoleModel role = new RoleModel();
+        role.setName(Role.SIMPLE_USER.getName());
+        String token = jwtUtil.generateToken(42L, Set.of(role), 0);
+
+        Optional<JwtPrincipal> principal = jwtUtil.verifyToken(token);
+
+        assertTrue(principal.isPresent());
+        assertEquals(42L, principal.get().getId());
+        assertEquals(List.of(Role.SIMPLE_USER.getName()), principal.get().getRoles());
+        assertTrue(principal.get().getExpiresAtMs() > System.currentTimeMillis());
+    }
+
+    @Test
+    public void sharedSecretPublishesNoKeys() {
+        assertTrue(jwtUtil.getPublicKeys().isEmpty());
+    }
+
+    @Test
+    public void verifyTokenRejectsTamperedToken() {
+        String token = jwtUtil.generateToken(42L, Set.of(), 0);
+
+        assertTrue(jwtUtil.verifyToken(token + "x").isEmpty());
+        assertTrue(jwtUtil.verifyToken("not.a.token").isEmpty());
+        assertFalse(jwtUtil.validateToken(""));
+    }
+
+    @Test
+    public void asymmetricTokensCarryTheirKeyId() {
+        for (String algorithm : List.of("EdDSA", "ES256")) {
+            JwtUtil asymmetric = jwtUtil(algorithm, null, null);
+            String token = asymmetric.generateToken(42L, Set.of(), 0);
+
+            assertEquals(42L, asymmetric.verifyToken(token).orElseThrow().getId());
+            assertEquals(1, asymmetric.getPublicKeys().size());
+            assertTrue(jwtUtil.verifyToken(token).isEmpty());
+            assertTrue(asymmetric.verifyToken(jwtUtil.generateToken(42L, Set.of(), 0)).isEmpty());
+            assertTrue(jwtUtil(algorithm, null, null).verifyToken(token).isEmpty()); // Other key
+        }
+    }
+
+    @Test
+    public void rotatedKeyStillVerifiesTokensOfThePreviousKey(@TempDir Path dir) throws Exception {
+        Path keyStore = dir.resolve("jwt.p12");
+        generateKey(keyStore, "2026-01");
+        JwtUtil before = jwtUtil("ES256", keyStore, "");
+        String token = before.generateToken(42L, Set.of(), 0);
+        generateKey(keyStore, "2026-02");
+
+        JwtUtil after = jwtUtil("ES256", keyStore, "2026-02");
+
+        assertEquals(2, after.getPublicKeys().size());
+        assertEquals(42L, after.verifyToken(token).orElseThrow().getId());
+        assertTrue(before.verifyToken(after.generateToken(42L, Set.of(), 0)).isEmpty()); // Not published yet
+    }
+
+    @Test
+    public void asymmetricAlgorithmWithoutKeyStoreFails() {
+        JwtUtil asymmetric = new JwtUtil();
+        ReflectionTestUtils.setField(asymmetric, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(asymmetric, "signingAlgorithm", "ES256");
+
+        assertThrows(IllegalStateException.class, asymmetric::init);
+    }
+
+    private static JwtUtil jwtUtil(String algorithm, Path keyStore, String activeKey) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", 60_000);
+        ReflectionTestUtils.setField(jwtUtil, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtUtil, "signingAlgorithm", algorithm);
+        if (keyStore != null) {
+            ReflectionTestUtils.setField(jwtUtil, "keyStore", keyStore.toString());
+            ReflectionTestUtils.setField(jwtUtil, "keyStorePassword", KEY_STORE_PASSWORD);
+            ReflectionTestUtils.setField(jwtUtil, "activeKey", activeKey);
+        } else {
+            ReflectionTestUtils.setField(jwtUtil, "ephemeralKeys", true);
+        }
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    private static void generateKey(Path keyStore, String alias) throws Exception {
+        Process keytool = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "keytool").toString(),
+                "-genkeypair", "-keyalg", "EC", "-groupname", "secp256r1", "-alias", alias, "-dname", "CN=api",
+                "-keystore", keyStore.toString(), "-storetype", "PKCS12", "-storepass", KEY_STORE_PASSWORD)
+                .inheritIO()
+                .start();
+        assertEquals(0, keytool.waitFor());
+    }
+}
@@ -0,0 +1,53 @@
+package trainning.api.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenAuthenticationCacheTest {
+    private static final String TOKEN = "header.payload.signature";
+
+    private TokenAuthenticationCache newCache(boolean enabled) {
+        TokenAuthenticationCache cache = new TokenAuthenticationCache();
+        ReflectionTestUtils.setField(cache, "enabled", enabled);
+        ReflectionTestUtils.setField(cache, "maxSize", 10L);
+        ReflectionTestUtils.setField(cache, "ttlMs", 60_000L);
+        cache.init();
+        return cache;
+    }
+
+    @Test
+    public void cachedAuthenticationIsReturned() {
+        TokenAuthenticationCache cache = newCache(true);
+        Authentication authentication = new UsernamePasswordAuthenticationToken(1L, null, List.of());
+
+        assertNull(cache.get(TOKEN));
+        cache.put(TOKEN, authentication, System.currentTimeMillis() + 60_000);
+
+        assertSame(authentication, cache.get(TOKEN));
+        assertEquals(1, cache.getStats().hitCount());
+        assertEquals(1, cache.getStats().missCount());
+    }
+
+    @Test
+    public void expiredTokenIsNeverReturned() {
+        TokenAuthenticationCache cache = newCache(true);
+        cache.put(TOKEN, new UsernamePasswordAuthenticationToken(1L, null, List.of()), System.currentTimeMillis() - 1);
+
+        assertNull(cache.get(TOKEN));
+    }
+
+    @Test
+    public void disabledCacheStoresNothing() {
+        TokenAuthenticationCache cache = newCache(false);
+        cache.put(TOKEN, new UsernamePasswordAuthenticationToken(1L, null, List.of()), System.currentTimeMillis() + 60_000);
+
+        assertFalse(cache.isEnabled());
+        assertNull(cache.get(TOKEN));
+    }
+}
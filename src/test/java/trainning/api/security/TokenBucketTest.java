@@ -0,0 +1,48 @@
+package trainning.api.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TokenBucketTest {
+    private static final long INTERVAL = TimeUnit.SECONDS.toNanos(6); // 10 per minute
+
+    @Test
+    public void allowsBurstThenRefillRate() {
+        TokenBucket bucket = new TokenBucket(3, INTERVAL, 0);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire(0));
+        }
+        assertEquals(INTERVAL, bucket.tryAcquire(0));
+        assertEquals(INTERVAL - 1000, bucket.tryAcquire(1000));
+        assertEquals(0, bucket.tryAcquire(INTERVAL));
+        assertEquals(INTERVAL, bucket.tryAcquire(INTERVAL));
+    }
+
+    @Test
+    public void rejectedAttemptsTakeNoToken() {
+        TokenBucket bucket = new TokenBucket(1, INTERVAL, 0);
+        assertEquals(0, bucket.tryAcquire(0));
+
+        for (int i = 0; i < 100; i++) {
+            bucket.tryAcquire(INTERVAL / 2);
+        }
+
+        assertEquals(0, bucket.tryAcquire(INTERVAL));
+    }
+
+    @Test
+    public void idleBucketRefillsUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(2, INTERVAL, 0);
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+
+        long later = 100 * INTERVAL;
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(INTERVAL, bucket.tryAcquire(later));
+    }
+}
@@ -0,0 +1,98 @@
+package trainning.api.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class TokenRevocationRegistryTest {
+    @Autowired
+    private TokenRevocationRegistry tokenRevocations;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void revokeBumpsEpoch() {
+        long userId = 1001;
+        long before = tokenRevocations.currentEpoch(userId);
+
+        transactionTemplate.executeWithoutResult(status -> tokenRevocations.revoke(userId));
+
+        assertTrue(tokenRevocations.isRevoked(userId, before));
+        assertEquals(before + 1, tokenRevocations.currentEpoch(userId));
+        assertFalse(tokenRevocations.isRevoked(userId, tokenRevocations.currentEpoch(userId))); // Minted right after
+    }
+
+    @Test
+    public void rolledBackRevocationDoesNotApply() {
+        long userId = 1002;
+        long before = tokenRevocations.currentEpoch(userId);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            tokenRevocations.revokeAll(List.of(userId));
+            status.setRollbackOnly();
+        });
+
+        assertFalse(tokenRevocations.isRevoked(userId, before));
+        assertEquals(before, tokenRevocations.currentEpoch(userId));
+    }
+
+    @Test
+    public void refreshPicksUpOtherInstancesRevocations() {
+        long userId = 1003;
+        tokenRevocations.refresh();
+        jdbcTemplate.update("INSERT INTO api_token_epoch (api_user_id, epoch, revoked_at) VALUES (?, 3, CURRENT_TIMESTAMP)", userId);
+        assertFalse(tokenRevocations.isRevoked(userId, 2));
+
+        tokenRevocations.refresh();
+
+        assertTrue(tokenRevocations.isRevoked(userId, 2));
+        assertFalse(tokenRevocations.isRevoked(userId, 3));
+    }
+
+    @Test
+    public void concurrentFirstRevocationsBothApply() throws Exception {
+        long userId = 1004;
+        CountDownLatch firstInserted = new CountDownLatch(1);
+        CountDownLatch commitFirst = new CountDownLatch(1);
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            tokenRevocations.revoke(userId);
+            firstInserted.countDown();
+            await(commitFirst);
+        }));
+        await(firstInserted);
+
+        // Does not see the uncommitted row of the first one, so also inserts one and waits for the first to commit
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> tokenRevocations.revoke(userId)));
+        Thread.sleep(200);
+        commitFirst.countDown();
+
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+        assertEquals(2, tokenRevocations.currentEpoch(userId));
+        assertTrue(tokenRevocations.isRevoked(userId, 1));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package trainning.api.security;
 
 import jakarta.servlet.http.HttpServletResponse;
+import java.util.Arrays;
 import lombok.AllArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -23,17 +25,22 @@ import org.springframework.test.context.ActiveProfiles;
 @ActiveProfiles("test") // Only for testing purposes
 public class WebSecurityConfig {
     private final JwtUtil jwtUtil;
+    private final TokenAuthenticationCache tokenCache;
+    private final TokenRevocationRegistry tokenRevocations;
+    private final Environment env;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http.authorizeHttpRequests(auth -> auth
                 .requestMatchers("/ping").permitAll()
-                .requestMatchers("/v1/auth").permitAll()
+                .requestMatchers("/.well-known/jwks.json").permitAll()
+                .requestMatchers("/v1/auth", "/v1/auth/refresh").permitAll()
                 .requestMatchers("/swagger-ui/*").permitAll()
                 .requestMatchers("/v3/api-docs").permitAll()
                 .requestMatchers("/v3/api-docs/*").permitAll()
+                .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                 .anyRequest().authenticated())
-        .addFilterBefore(new JwtAuthenticationFilter(jwtUtil), UsernamePasswordAuthenticationFilter.class)
+        .addFilterBefore(new JwtAuthenticationFilter(jwtUtil, tokenCache, tokenRevocations), UsernamePasswordAuthenticationFilter.class)
         .csrf(AbstractHttpConfigurer::disable) // Only for testing purposes
         .exceptionHandling(
             exceptionHandling -> exceptionHandling
@@ -41,9 +48,20 @@ public class WebSecurityConfig {
                     .accessDeniedHandler(forbiddenHandler())
         );
 
+        if (isProdProfile()) {
+            // The chain also runs on the plain HTTP management port, which has no HTTPS port to redirect to
+            int managementPort = env.getProperty("management.server.port", Integer.class, -1);
+            http.redirectToHttps(httpSecurityHttpsRedirectConfigurer -> httpSecurityHttpsRedirectConfigurer
+                    .requestMatchers(request -> request.getLocalPort() != managementPort));
+        }
+
         return http.build();
     }
 
+    private boolean isProdProfile() {
+        return Arrays.asList(env.getActiveProfiles()).contains("prod");
+    }
+
     @Bean
     public AuthenticationEntryPoint unauthorizedEntryPoint() {
         return (request, response, authException) -> response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized");
@@ -1,10 +1,13 @@
 package trainning.api.service;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
 import trainning.api.exception.InvalidPasswordException;
+import trainning.api.security.CharacterClassPasswordPolicy;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -13,6 +16,7 @@ public class UserServiceTest {
     @Test
     public void validatePasswordTest() throws NoSuchMethodException {
         UserService userService = new UserService();
+        ReflectionTestUtils.setField(userService, "passwordPolicies", List.of(new CharacterClassPasswordPolicy(10, "!@#$%^&*()_+=-")));
         Method method = UserService.class.getDeclaredMethod("validatePassword", String.class);
         method.setAccessible(true);
 
@@ -21,7 +25,10 @@ public class UserServiceTest {
         invokeAndExpectException(method, userService, "abc1234567",InvalidPasswordException.class);
         invokeAndExpectException(method, userService, "Abc1234567",InvalidPasswordException.class);
         invokeAndExpectException(method, userService, "Ab1_",InvalidPasswordException.class);
+        invokeAndExpectException(method, userService, "Abc123456789_\n",InvalidPasswordException.class);
+        invokeAndExpectException(method, userService, "Abc 123456789",InvalidPasswordException.class);
         assertDoesNotThrow(() -> method.invoke(userService, "Abc123456789_"));
+        assertDoesNotThrow(() -> method.invoke(userService, "Abc 123456789_"));
     }
 
     private void invokeAndExpectException(Method method, UserService userService, String password, Class<? extends Throwable> expectedException) {